@@ -0,0 +1,57 @@
+package org.example.benchmarks;
+
+import org.example.Combined;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the input stages of a trial: sequence generation, the h-sequence and the noise.
+ * Each stage is measured in its boxed {@code List<Integer>} form and in its primitive form.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class GeneratorBenchmark {
+
+    @Benchmark
+    public List<Integer> generateRandomSequenceList(TraceState state) {
+        return Combined.generateRandomSequence(state.k, state.N, state.n, state.epsilon);
+    }
+
+    @Benchmark
+    public int[] generateRandomSequence(TraceState state) {
+        Combined.generateRandomSequence(state.k, state.N, state.epsilon, 691L, state.output);
+        return state.output;
+    }
+
+    @Benchmark
+    public List<Integer> generateHList(TraceState state) {
+        return Combined.generateH(state.sequenceList);
+    }
+
+    @Benchmark
+    public int[] generateH(TraceState state) {
+        return Combined.generateH(state.sequence);
+    }
+
+    @Benchmark
+    public List<Integer> addNoiseList(TraceState state) {
+        return Combined.addNoise(state.hSequenceList, state.tau, state.w);
+    }
+
+    @Benchmark
+    public int[] addNoise(TraceState state) {
+        return Combined.addNoise(state.hSequence, state.tau, state.w, new SplittableRandom(691L));
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.benchmarks;
+
+import org.example.Belady;
+import org.example.BlindOracle;
+import org.example.Combined;
+import org.example.CombinedAlg;
+import org.example.LRU;
+import org.example.MultiplicativeWeights;
+import org.example.NoiseStream;
+import org.example.PredictiveMarking;
+import org.example.StackDistance;
+import org.example.TrialSimulator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the paging algorithms over one trace: the {@code List<Integer>} methods of
+ * {@link Combined} next to the array based engines that replace them in the trials, the prediction
+ * based policies that compete with the combined algorithm, OPT as Blind Oracle with the true next
+ * arrivals next to {@link Belady}, a whole trial run as four separate passes next to the single pass
+ * {@link TrialSimulator}, and the LRU faults of every cache size up to N by one LRU run per size next
+ * to one {@link StackDistance} pass.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class PolicyBenchmark {
+
+    @Benchmark
+    public int blindOracleList(TraceState state) {
+        return Combined.blindOracle(state.k, state.sequenceList, state.noisyHSequenceList);
+    }
+
+    @Benchmark
+    public int blindOracle(TraceState state) {
+        return BlindOracle.pageFaults(state.k, state.sequence, state.noisyHSequence);
+    }
+
+    @Benchmark
+    public int optBlindOracle(TraceState state) {
+        return BlindOracle.pageFaults(state.k, state.sequence, state.hSequence);
+    }
+
+    @Benchmark
+    public int optBelady(TraceState state) {
+        return Belady.pageFaults(state.k, state.hSequence);
+    }
+
+    @Benchmark
+    public int lruList(TraceState state) {
+        return Combined.LRU(state.k, state.sequenceList);
+    }
+
+    @Benchmark
+    public int lru(TraceState state) {
+        return LRU.pageFaults(state.k, state.sequence);
+    }
+
+    @Benchmark
+    public int combinedAlgList(TraceState state) {
+        return Combined.combinedAlg(state.k, state.sequenceList, state.noisyHSequenceList, state.threshold);
+    }
+
+    @Benchmark
+    public int combinedAlg(TraceState state) {
+        return CombinedAlg.pageFaults(state.k, state.sequence, state.noisyHSequence, state.threshold);
+    }
+
+    @Benchmark
+    public int predictiveMarking(TraceState state) {
+        return PredictiveMarking.pageFaults(state.k, state.sequence, state.noisyHSequence, null);
+    }
+
+    @Benchmark
+    public int robustMarking(TraceState state) {
+        return PredictiveMarking.pageFaults(state.k, state.sequence, state.noisyHSequence, new SplittableRandom(691L));
+    }
+
+    @Benchmark
+    public int multiplicativeWeights(TraceState state) {
+        return MultiplicativeWeights.pageFaults(state.k, state.sequence, state.noisyHSequence, state.threshold,
+                new SplittableRandom(691L));
+    }
+
+    @Benchmark
+    public int[] trialSeparatePasses(TraceState state) {
+        int[] noisy = NoiseStream.fill(state.hSequence, state.tau, state.w, new SplittableRandom(691L), state.output);
+        return new int[]{
+                BlindOracle.pageFaults(state.k, state.sequence, state.hSequence),
+                BlindOracle.pageFaults(state.k, state.sequence, noisy),
+                LRU.pageFaults(state.k, state.sequence),
+                CombinedAlg.pageFaults(state.k, state.sequence, noisy, state.threshold)};
+    }
+
+    @Benchmark
+    public int[] trialSinglePass(TraceState state) {
+        return TrialSimulator.run(state.k, state.sequence, state.hSequence, state.tau, state.w, state.threshold,
+                new SplittableRandom(691L));
+    }
+
+    @Benchmark
+    public int[] lruEveryK(TraceState state) {
+        int[] curve = new int[state.N + 1];
+        for (int size = 1; size <= state.N; size++) {
+            curve[size] = LRU.pageFaults(size, state.sequence);
+        }
+        return curve;
+    }
+
+    @Benchmark
+    public int[] stackDistanceEveryK(TraceState state) {
+        return StackDistance.of(state.sequence).missCurve(state.N);
+    }
+}
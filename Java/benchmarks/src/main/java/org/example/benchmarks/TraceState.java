@@ -0,0 +1,73 @@
+package org.example.benchmarks;
+
+import org.example.Combined;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A fixed trace shared by the benchmarks, in both the boxed and the primitive form.
+ *
+ * The parameters follow the Phase 3 sweeps: k from the test13/test14 cache sizes, N from the
+ * N = 10·k and N = 100 settings, n = 10000 requests, and the two regimes of the sweeps
+ * (regime 1: ε = 0.5, τ = 0.5; regime 2: ε = 0.7, τ = 0.9) with w = 200 and threshold 0.1.
+ */
+@State(Scope.Benchmark)
+public class TraceState {
+
+    @Param({"5", "20", "30"})
+    public int k;
+
+    @Param({"100", "300"})
+    public int N;
+
+    @Param({"10000"})
+    public int n;
+
+    @Param({"1", "2"})
+    public int regime;
+
+    public double epsilon;
+    public double tau;
+    public int w = 200;
+    public double threshold = 0.1;
+
+    public int[] sequence;
+    public int[] hSequence;
+    public int[] noisyHSequence;
+
+    public List<Integer> sequenceList;
+    public List<Integer> hSequenceList;
+    public List<Integer> noisyHSequenceList;
+
+    // scratch output for the generator benchmark
+    public int[] output;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        epsilon = (regime == 1) ? 0.5 : 0.7;
+        tau = (regime == 1) ? 0.5 : 0.9;
+
+        SplittableRandom random = new SplittableRandom(691L);
+        sequence = new int[n];
+        Combined.generateRandomSequence(k, N, epsilon, random.nextLong(), sequence);
+        hSequence = Combined.generateH(sequence);
+        noisyHSequence = Combined.addNoise(hSequence, tau, w, random);
+
+        sequenceList = box(sequence);
+        hSequenceList = box(hSequence);
+        noisyHSequenceList = box(noisyHSequence);
+
+        output = new int[n];
+    }
+
+    private static List<Integer> box(int[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+}
@@ -0,0 +1,210 @@
+package org.example;
+
+/**
+ * Array based ARC (Adaptive Replacement Cache) paging engine, after Megiddo and Modha.
+ *
+ * The cache is split between T1, pages seen once recently, and T2, pages seen at least twice. Two
+ * ghost lists, B1 and B2, remember the pages recently evicted from each. A hit in a ghost list means
+ * the other list took too much room, so the target size p of T1 moves towards the list that would
+ * have hit. The four lists are linked through the parallel {@code prev} and {@code next} arrays of a
+ * pool of 2k nodes (k resident pages and at most k ghosts), and a {@link PageIndex} maps every
+ * resident or ghost page to its node, so every request is O(1).
+ */
+public final class ARC implements PagingPolicy {
+
+    private static final int NONE = -1;
+    private static final int T1 = 0;
+    private static final int T2 = 1;
+    private static final int B1 = 2;
+    private static final int B2 = 3;
+
+    private final int k;
+    private final PageIndex nodes;
+
+    private final int[] nodePage;
+    private final int[] nodeList;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] head = new int[4]; // least recently used of each list
+    private final int[] tail = new int[4]; // most recently used of each list
+    private final int[] size = new int[4];
+
+    // unused nodes, chained through next
+    private int free;
+    private int p;
+    private int pageFaults;
+
+    /**
+     * Creates an empty ARC cache.
+     *
+     * @param k The cache size.
+     */
+    public ARC(int k){
+        this(k, PageIndex.hashed(2 * k));
+    }
+
+    ARC(int k, PageIndex nodes){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.nodes = nodes;
+        this.nodePage = new int[2 * k];
+        this.nodeList = new int[2 * k];
+        this.prev = new int[2 * k];
+        this.next = new int[2 * k];
+        clearLists();
+    }
+
+    /**
+     * Serves one page request; ARC ignores the prediction.
+     *
+     * @param page       The requested page.
+     * @param prediction Ignored.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        int node = nodes.get(page);
+
+        if(node != PageIndex.ABSENT){
+            int list = nodeList[node];
+            if(list == T1 || list == T2){
+                // hit: the page has now been seen at least twice
+                move(node, T2);
+                return false;
+            }
+
+            pageFaults++;
+            if(list == B1){
+                p = Math.min(k, p + Math.max(size[B2] / size[B1], 1));
+                replace(false);
+            }else{
+                p = Math.max(0, p - Math.max(size[B1] / size[B2], 1));
+                replace(true);
+            }
+            move(node, T2);
+            return true;
+        }
+
+        pageFaults++;
+
+        if(size[T1] + size[B1] == k){
+            if(size[T1] < k){
+                drop(head[B1]);
+                replace(false);
+            }else{
+                // B1 is empty and T1 fills the cache: evict without a ghost
+                drop(head[T1]);
+            }
+        }else{
+            int total = size[T1] + size[T2] + size[B1] + size[B2];
+            if(total >= k){
+                if(total == 2 * k){
+                    drop(head[B2]);
+                }
+                replace(false);
+            }
+        }
+
+        node = free;
+        free = next[node];
+        nodePage[node] = page;
+        nodes.put(page, node);
+        append(node, T1);
+        return true;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    // the ghost lists B1 and B2 hold no pages
+    @Override
+    public int cached(){
+        return size[T1] + size[T2];
+    }
+
+    @Override
+    public void reset(){
+        for(int list = 0; list < 4; list++){
+            for(int node = head[list]; node != NONE; node = next[node]){
+                nodes.remove(nodePage[node]);
+            }
+        }
+        clearLists();
+        p = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * @return The current target size of T1.
+     */
+    public int target(){
+        return p;
+    }
+
+    /**
+     * Simulates an ARC cache over a whole sequence.
+     *
+     * @param k   The cache size.
+     * @param seq The page request sequence.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq){
+        return PagingPolicy.pageFaults(new ARC(k, PageIndex.forPages(seq, 2 * k)), seq, null);
+    }
+
+    // evicts the least recently used page of T1 or T2 into its ghost list
+    private void replace(boolean inB2){
+        if(size[T1] >= 1 && ((inB2 && size[T1] == p) || size[T1] > p || size[T2] == 0)){
+            move(head[T1], B1);
+        }else{
+            move(head[T2], B2);
+        }
+    }
+
+    private void drop(int node){
+        unlink(node);
+        nodes.remove(nodePage[node]);
+        next[node] = free;
+        free = node;
+    }
+
+    private void move(int node, int list){
+        unlink(node);
+        append(node, list);
+    }
+
+    private void unlink(int node){
+        int list = nodeList[node];
+        int a = prev[node];
+        int b = next[node];
+        if(a == NONE) head[list] = b; else next[a] = b;
+        if(b == NONE) tail[list] = a; else prev[b] = a;
+        size[list]--;
+    }
+
+    private void append(int node, int list){
+        nodeList[node] = list;
+        prev[node] = tail[list];
+        next[node] = NONE;
+        if(tail[list] == NONE) head[list] = node; else next[tail[list]] = node;
+        tail[list] = node;
+        size[list]++;
+    }
+
+    private void clearLists(){
+        for(int list = 0; list < 4; list++){
+            head[list] = NONE;
+            tail[list] = NONE;
+            size[list] = 0;
+        }
+        for(int node = 0; node < next.length; node++){
+            next[node] = node + 1 < next.length ? node + 1 : NONE;
+        }
+        free = 0;
+    }
+}
@@ -0,0 +1,192 @@
+package org.example;
+
+/**
+ * Belady's optimal offline paging (OPT): on a fault, evict the cached page whose next request is
+ * furthest in the future. Unlike {@link BlindOracle}, which can be fed any predictions, the engine
+ * requires the true next arrivals, as produced by {@link Combined#generateH}: the next arrival of the
+ * request at index i is the 1-based position of the next request of its page, or n + 1.
+ *
+ * With true next arrivals a cached page is identified by its next arrival alone, which is unique
+ * among the cached pages that will be requested again. The request at index i is a hit exactly when
+ * i + 1 is one of the cached next arrivals, so when the trace length n is known the cache is just a
+ * {@link PositionSet} over {@code 1..n}: no page table, no slots, and each request is a handful of
+ * word operations. Pages never requested again (next arrival n + 1) are only counted, as any of
+ * them is the best page to evict.
+ *
+ * For streams of unknown length the engine falls back to a page table and an {@link IndexedHeap}
+ * keyed by next arrival, O(log k) per request, and a hit whose recorded next arrival is not the
+ * current position is reported, as the predictions cannot have been the true next arrivals.
+ */
+public final class Belady implements PagingPolicy {
+
+    private final int k;
+    private int position;
+    private int pageFaults;
+
+    // bounded mode: next arrivals of the cached pages, and the count of pages never requested again
+    private final int length;
+    private final PositionSet arrivals;
+    private int dead;
+
+    // stream mode
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final IndexedHeap heap;
+    private int used;
+
+    /**
+     * Creates an empty OPT cache for a trace of known length.
+     *
+     * @param k      The cache size.
+     * @param length The number of requests of the trace.
+     */
+    public Belady(int k, int length){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        if(length < 0 || length > Integer.MAX_VALUE - 2){
+            throw new IllegalArgumentException("Trace length out of range: " + length);
+        }
+        this.k = k;
+        this.length = length;
+        this.arrivals = new PositionSet(length + 2);
+        this.slots = null;
+        this.slotPage = null;
+        this.heap = null;
+    }
+
+    /**
+     * Creates an empty OPT cache for a stream of unknown length.
+     *
+     * @param k The cache size.
+     */
+    public Belady(int k){
+        this(k, PageIndex.hashed(k));
+    }
+
+    Belady(int k, PageIndex slots){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.length = -1;
+        this.arrivals = null;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.heap = new IndexedHeap(k);
+    }
+
+    /**
+     * Serves one page request.
+     *
+     * @param page        The requested page; only used for streams of unknown length.
+     * @param nextArrival The true next arrival of the request.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int nextArrival){
+        int t = position++;
+        if(nextArrival <= t + 1){
+            throw new IllegalArgumentException("Next arrival " + nextArrival + " of request " + t + " is not in the future");
+        }
+        return arrivals != null ? requestBounded(t, nextArrival) : requestStream(t, page, nextArrival);
+    }
+
+    private boolean requestBounded(int t, int nextArrival){
+        if(t >= length){
+            throw new IllegalStateException("More requests than the trace length " + length);
+        }
+        boolean fault = !arrivals.remove(t + 1);
+        if(fault){
+            pageFaults++;
+            if(arrivals.size() + dead == k){
+                // a page never requested again is always the best victim
+                if(dead > 0){
+                    dead--;
+                }else{
+                    arrivals.remove(arrivals.max());
+                }
+            }
+        }
+        if(nextArrival > length){
+            dead++;
+        }else{
+            arrivals.add(nextArrival);
+        }
+        return fault;
+    }
+
+    private boolean requestStream(int t, int page, int nextArrival){
+        int slot = slots.get(page);
+        if(slot != PageIndex.ABSENT){
+            if(heap.key(slot) != t + 1){
+                throw new IllegalArgumentException("Request " + t + " of page " + page
+                        + " was predicted at " + heap.key(slot) + "; OPT needs the true next arrivals");
+            }
+            heap.set(slot, nextArrival);
+            return false;
+        }
+        pageFaults++;
+        if(used < k){
+            slot = used++;
+        }else{
+            slot = heap.top();
+            slots.remove(slotPage[slot]);
+        }
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        heap.set(slot, nextArrival);
+        return true;
+    }
+
+    /**
+     * @return The number of page faults so far.
+     */
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    /**
+     * @return The number of pages in the cache.
+     */
+    @Override
+    public int cached(){
+        return arrivals != null ? arrivals.size() + dead : used;
+    }
+
+    /**
+     * Empties the cache, resets the fault counter and starts again at position 0.
+     */
+    @Override
+    public void reset(){
+        if(arrivals != null){
+            arrivals.clear();
+            dead = 0;
+        }else{
+            for(int slot = 0; slot < used; slot++){
+                slots.remove(slotPage[slot]);
+            }
+            heap.clear();
+            used = 0;
+        }
+        position = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * Simulates OPT over a whole trace. The pages themselves are not needed: the next arrivals say
+     * which requests hit.
+     *
+     * @param k    The cache size.
+     * @param hSeq The true next arrival of each request, e.g. from {@link Combined#generateH}.
+     * @return The number of page faults of OPT.
+     */
+    public static int pageFaults(int k, int[] hSeq){
+        Belady cache = new Belady(k, hSeq.length);
+        for(int h : hSeq){
+            cache.onRequest(0, h);
+        }
+        return cache.pageFaults();
+    }
+}
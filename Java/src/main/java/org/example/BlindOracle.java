@@ -0,0 +1,253 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Array based BlindOracle paging engine.
+ *
+ * The cache is a set of k slots. A {@link PageIndex} maps a page to its slot and an
+ * {@link IndexedHeap} orders the slots by the predicted next arrival of their page, so a hit
+ * (re-keying the page) and a miss (evicting the page predicted furthest in the future) both cost
+ * O(log k) instead of the O(k) scan of {@link Combined#findPageToRemove}.
+ *
+ * When several cached pages share the largest prediction, {@code findPageToRemove} evicts the first
+ * of them in the iteration order of the {@code HashMap} of {@link Combined#blindOracle}: by hash
+ * bucket, then by the order the pages entered their bucket. The engine tracks the same buckets,
+ * growing its table when the map would (past 3/4 load, or when a bucket of a table under 64
+ * buckets reaches nine pages), and breaks ties by that order in the low bits of the heap key. Page
+ * fault counts are then identical to {@code blindOracle} for any pages and predictions, including
+ * the pages never requested again, which all tie at n + 1 for OPT. The one exception is a bucket of
+ * nine or more cached pages in a table of 64 buckets or more, which the map turns into a tree with
+ * an order of its own.
+ */
+public final class BlindOracle implements PagingPolicy {
+
+    private static final int NONE = -1;
+    // as in java.util.HashMap
+    private static final int INITIAL_BUCKETS = 16;
+    private static final int TREEIFY_THRESHOLD = 8;
+    private static final int MIN_TREEIFY_BUCKETS = 64;
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final IndexedHeap heap;
+
+    // the slots of each bucket in the order their pages entered it, and each slot's rank there
+    private int buckets;
+    private int rankBits;
+    private int[] bucketHead;
+    private int[] bucketTail;
+    private int[] bucketSize;
+    private int[] nextRank;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] rank;
+
+    private int used;
+    private int pageFaults;
+
+    /**
+     * Creates an empty BlindOracle cache.
+     *
+     * @param k The cache size.
+     */
+    public BlindOracle(int k){
+        this(k, PageIndex.hashed(k));
+    }
+
+    BlindOracle(int k, PageIndex slots){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.heap = new IndexedHeap(k);
+        this.prev = new int[k];
+        this.next = new int[k];
+        this.rank = new int[k];
+        newBuckets(INITIAL_BUCKETS);
+    }
+
+    /**
+     * Serves one page request.
+     *
+     * @param page      The requested page.
+     * @param predicted The predicted next arrival of the page.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int predicted){
+
+        int slot = slots.get(page);
+
+        if(slot != PageIndex.ABSENT){
+            // update the predicted next time for the existing page
+            heap.set(slot, key(predicted, order(slot)));
+            return false;
+        }
+
+        // cache miss // Page Fault
+        pageFaults++;
+
+        if(used < k){
+            // cache have space so add the new page
+            slot = used++;
+        }else{
+            // evict the page predicted to be requested furthest in the future
+            slot = heap.top();
+            slots.remove(slotPage[slot]);
+            unlink(slot);
+        }
+
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        link(slot);
+        heap.set(slot, key(predicted, order(slot)));
+        return true;
+    }
+
+    /**
+     * @return The number of page faults so far.
+     */
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    /**
+     * @return The number of pages in the cache.
+     */
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    /**
+     * Empties the cache and resets the fault counter.
+     */
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+        }
+        heap.clear();
+        newBuckets(INITIAL_BUCKETS);
+        used = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * Simulates a BlindOracle cache over a whole sequence.
+     *
+     * @param k    The cache size.
+     * @param seq  The original page request sequence.
+     * @param hSeq The predicted next arrival of each request.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq, int[] hSeq){
+        BlindOracle cache = new BlindOracle(k, PageIndex.forPages(seq, k));
+        for(int i = 0; i < seq.length; i++){
+            cache.onRequest(seq[i], hSeq[i]);
+        }
+        return cache.pageFaults();
+    }
+
+    // prediction in the high bits; among equal predictions the page first in map order ranks higher
+    static long key(int predicted, int order){
+        return ((long) predicted << 32) | (Integer.MAX_VALUE - order);
+    }
+
+    // the position of a slot's page in the map's iteration order, bucket first
+    private int order(int slot){
+        return (bucket(slotPage[slot], buckets) << rankBits) | rank[slot];
+    }
+
+    // the bucket of a page in a table of the given size, with HashMap's spreading of Integer hashes
+    private static int bucket(int page, int buckets){
+        return (page ^ (page >>> 16)) & (buckets - 1);
+    }
+
+    // the page of the slot enters the map: last in its bucket, then the table grows as the map's would
+    private void link(int slot){
+        int b = bucket(slotPage[slot], buckets);
+        if(nextRank[b] == 1 << rankBits){
+            renumber(b);
+        }
+        rank[slot] = nextRank[b]++;
+        prev[slot] = bucketTail[b];
+        next[slot] = NONE;
+        if(bucketTail[b] == NONE) bucketHead[b] = slot; else next[bucketTail[b]] = slot;
+        bucketTail[b] = slot;
+        bucketSize[b]++;
+        // a bin that reaches TREEIFY_THRESHOLD + 1 pages makes a small table grow instead of a tree
+        if(bucketSize[b] > TREEIFY_THRESHOLD && buckets < MIN_TREEIFY_BUCKETS){
+            resize();
+        }
+        if(used > buckets - (buckets >>> 2)){
+            resize();
+        }
+    }
+
+    private void unlink(int slot){
+        int b = bucket(slotPage[slot], buckets);
+        int p = prev[slot];
+        int q = next[slot];
+        if(p == NONE) bucketHead[b] = q; else next[p] = q;
+        if(q == NONE) bucketTail[b] = p; else prev[q] = p;
+        bucketSize[b]--;
+    }
+
+    // doubles the table; each bucket splits in two, keeping the order of its pages
+    private void resize(){
+        int[] oldHead = bucketHead;
+        int oldBuckets = buckets;
+        newBuckets(2 * oldBuckets);
+        for(int b = 0; b < oldBuckets; b++){
+            for(int slot = oldHead[b], after; slot != NONE; slot = after){
+                after = next[slot];
+                int nb = bucket(slotPage[slot], buckets);
+                rank[slot] = nextRank[nb]++;
+                prev[slot] = bucketTail[nb];
+                next[slot] = NONE;
+                if(bucketTail[nb] == NONE) bucketHead[nb] = slot; else next[bucketTail[nb]] = slot;
+                bucketTail[nb] = slot;
+                bucketSize[nb]++;
+            }
+        }
+        for(int b = 0; b < buckets; b++){
+            rekey(b);
+        }
+    }
+
+    // ranks only grow within a bucket; when they run out, the live pages are ranked 0, 1, ... again
+    private void renumber(int b){
+        int r = 0;
+        for(int slot = bucketHead[b]; slot != NONE; slot = next[slot]){
+            rank[slot] = Math.min(r++, (1 << rankBits) - 1);
+        }
+        nextRank[b] = Math.min(r, (1 << rankBits) - 1);
+        rekey(b);
+    }
+
+    private void rekey(int b){
+        for(int slot = bucketHead[b]; slot != NONE; slot = next[slot]){
+            if(heap.contains(slot)){
+                heap.set(slot, key((int) (heap.key(slot) >> 32), order(slot)));
+            }
+        }
+    }
+
+    private void newBuckets(int count){
+        buckets = count;
+        // the bucket and the rank share the 31 low bits of the key
+        rankBits = 31 - Integer.numberOfTrailingZeros(count);
+        bucketHead = new int[count];
+        bucketTail = new int[count];
+        bucketSize = new int[count];
+        nextRank = new int[count];
+        Arrays.fill(bucketHead, NONE);
+        Arrays.fill(bucketTail, NONE);
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+/**
+ * Array based CLOCK (second chance) paging engine.
+ *
+ * The k slots form a circle with a reference bit each. A hit sets the bit of its slot; a miss
+ * advances the hand, clearing set bits, until it finds a slot whose bit is clear and replaces that
+ * page. Loaded pages start with their bit set, so a full sweep of the hand degrades to FIFO.
+ */
+public final class Clock implements PagingPolicy {
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final boolean[] referenced;
+
+    private int used;
+    private int hand;
+    private int pageFaults;
+
+    /**
+     * Creates an empty CLOCK cache.
+     *
+     * @param k The cache size.
+     */
+    public Clock(int k){
+        this(k, PageIndex.hashed(k));
+    }
+
+    Clock(int k, PageIndex slots){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.referenced = new boolean[k];
+    }
+
+    /**
+     * Serves one page request; CLOCK ignores the prediction.
+     *
+     * @param page       The requested page.
+     * @param prediction Ignored.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        int slot = slots.get(page);
+
+        if(slot != PageIndex.ABSENT){
+            referenced[slot] = true;
+            return false;
+        }
+
+        pageFaults++;
+
+        if(used < k){
+            slot = used++;
+        }else{
+            // give every referenced page a second chance
+            while(referenced[hand]){
+                referenced[hand] = false;
+                hand = (hand + 1 == k) ? 0 : hand + 1;
+            }
+            slot = hand;
+            hand = (hand + 1 == k) ? 0 : hand + 1;
+            slots.remove(slotPage[slot]);
+        }
+
+        slotPage[slot] = page;
+        referenced[slot] = true;
+        slots.put(page, slot);
+        return true;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+            referenced[slot] = false;
+        }
+        used = 0;
+        hand = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * Simulates a CLOCK cache over a whole sequence.
+     *
+     * @param k   The cache size.
+     * @param seq The page request sequence.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq){
+        return PagingPolicy.pageFaults(new Clock(k, PageIndex.forPages(seq, k)), seq, null);
+    }
+}
@@ -31,15 +31,19 @@ import org.jfree.data.xy.XYSeriesCollection;
 import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
 import javax.swing.*;
 import java.awt.*;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.*;
-import java.util.concurrent.Executor;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 public class Combined {
 
+    // directory receiving the CSV and PNG results of the sweeps in headless mode
+    static Path outputDirectory = Path.of(System.getProperty("paging.output", "results"));
+
     // PHASE 1 STARTS HERE
 
     /**
@@ -53,51 +57,77 @@ public class Combined {
      */
     public static List<Integer> generateRandomSequence(int k, int N, int n, double epsilon){
 
+        // the first k pages are always written, even when n < k
+        int[] sequence = new int[Math.max(n, k)];
+        generateRandomSequence(k, N, epsilon, new Random().nextLong(), sequence);
+
         // initializing empty input list
-        List<Integer> input = new ArrayList<>();
+        List<Integer> input = new ArrayList<>(sequence.length);
+        for(int page : sequence){
+            input.add(page);
+        }
 
-        // initializing empty local page set
-        Set<Integer> localSet = new HashSet<>();
+        return input;
+    }
 
-        // Random function
-        Random random = new Random();
+    /**
+     * Generates a random page request sequence into a caller supplied array.
+     *
+     * The local set L and the non-local set {1..N} \ L are kept as two arrays. Choosing x and y is
+     * a random index into each array, and moving y into L (and x out of it) is a swap of the two
+     * array cells, so every request costs O(1) and nothing is allocated after the initial O(N) setup.
+     * The same seed always produces the same sequence.
+     *
+     * @param k        The cache size.
+     * @param N        The total number of pages.
+     * @param epsilon  The probability of selecting a page from the local set.
+     * @param seed     The seed of the random generator.
+     * @param sequence The array to fill; its length is the length of the generated sequence.
+     */
+    public static void generateRandomSequence(int k, int N, double epsilon, long seed, int[] sequence){
 
-        // Initialize the sequence with the first k pages
-        for(int i=1; i<= k; i++){
-            input.add(i);
-            localSet.add(i);
+        if(k < 1 || N < k){
+            throw new IllegalArgumentException("Need 1 <= k <= N, got k=" + k + " N=" + N);
         }
 
-        for(int i=k+1; i<= n; i++){
+        int n = sequence.length;
+        SplittableRandom random = new SplittableRandom(seed);
 
-            // Choose page x from local set L uniformly at random
-            int x = chooseRandomPage(localSet);
-
-            // creating non-local set
-            Set<Integer> nonLocalSet = new HashSet<>();
-            for(int j=1; j <= N; j++){
-                if(!localSet.contains(j)){
-                    nonLocalSet.add(j);
-                }
+        // local set L = {1..k} and non-local set = {k+1..N}
+        int[] localSet = new int[k];
+        int[] nonLocalSet = new int[N - k];
+        for(int page = 1; page <= N; page++){
+            if(page <= k){
+                localSet[page - 1] = page;
+            }else{
+                nonLocalSet[page - k - 1] = page;
             }
+        }
 
-            // Choose page y from non-local set uniformly at random
-            int y = chooseRandomPage(nonLocalSet);
+        // Initialize the sequence with the first k pages
+        for(int i = 0; i < Math.min(k, n); i++){
+            sequence[i] = i + 1;
+        }
+
+        for(int i = k; i < n; i++){
+
+            // Choose page x from local set L uniformly at random
+            int xIndex = random.nextInt(k);
 
             //With probability epsilon, set pi = x; otherwise, set pi = y
-            if(random.nextDouble() < epsilon){
-                input.add(x);
+            if(nonLocalSet.length == 0 || random.nextDouble() < epsilon){
+                sequence[i] = localSet[xIndex];
             }else{
-                input.add(y);
-
-                // updating local set in 1-epsilon probability case
-                localSet.remove(x);
-                localSet.add(y);
+                // Choose page y from non-local set uniformly at random
+                int yIndex = random.nextInt(nonLocalSet.length);
+                int y = nonLocalSet[yIndex];
+                sequence[i] = y;
+
+                // updating local set in 1-epsilon probability case: swap x and y between the sets
+                nonLocalSet[yIndex] = localSet[xIndex];
+                localSet[xIndex] = y;
             }
-
         }
-
-        return input;
     }
 
 
@@ -127,31 +157,54 @@ public class Combined {
      */
     public static List<Integer> generateH(List<Integer> input){
 
-        // size of page request sequence
-        int n = input.size();
+        int[] hseq = generateH(toIntArray(input));
 
-        // map of pages with their next occurrence
-        List<Integer> hseq = new ArrayList<>();
+        List<Integer> result = new ArrayList<>(hseq.length);
+        for(int next : hseq){
+            result.add(next);
+        }
 
-        for(int i= 0; i<n; i++){
+        return result;
+    }
 
-            // get the page from input request at index i
-            int page_at_i = input.get(i);
-            int next = n+1;
+    /**
+     * Creates the h-sequence of a primitive page request sequence in a single backward pass.
+     *
+     * h[i] is the 1-based position of the next request for the page at index i, or n + 1 if the
+     * page is never requested again. Walking the sequence backwards and remembering the last index
+     * each page was seen at gives every h[i] in O(1), so the whole sequence costs O(n).
+     *
+     * @param input The original page request sequence.
+     * @return The h-sequence of the input.
+     */
+    public static int[] generateH(int[] input){
 
-            for(int j=i+1; j<n; j++){
-                if(page_at_i == input.get(j)){
-                    next = j+1;
-                    break;
-                }
-            }
+        // size of page request sequence
+        int n = input.length;
+        int[] hseq = new int[n];
+
+        // last (smallest so far) index each page was seen at while walking backwards
+        PageIndex lastSeen = PageIndex.forPages(input, 1024);
 
-            hseq.add(next);
+        for(int i = n - 1; i >= 0; i--){
+            int next = lastSeen.get(input[i]);
+            hseq[i] = (next == PageIndex.ABSENT) ? n + 1 : next + 1;
+            lastSeen.put(input[i], i);
         }
 
         return hseq;
     }
 
+    // Helper function to unbox a page request sequence for the array based methods
+    static int[] toIntArray(List<Integer> list){
+        int[] array = new int[list.size()];
+        int i = 0;
+        for(int value : list){
+            array[i++] = value;
+        }
+        return array;
+    }
+
 
     /**
      * Adds noise to the modified sequence.
@@ -164,25 +217,32 @@ public class Combined {
 
     public static List<Integer> addNoise(List<Integer> hSequence, double tau, int w){
 
-        List<Integer> predicted_values = new ArrayList<>();
-        int n = hSequence.size();
-        Random random = new Random();
-
-        for(int i=0; i< n; i++){
+        List<Integer> predicted_values = new ArrayList<>(hSequence.size());
+        // the generator of the calling thread, so concurrent trials never share one
+        RandomGenerator random = ThreadLocalRandom.current();
 
-            double prob = random.nextDouble();
-            int nextVal = hSequence.get(i);
-
-            if(prob <= tau){
-                nextVal = (int) (Math.random() * (Math.max(i + 1 + 1, nextVal - Math.floorDiv(w, 2))) +
-                        Math.max(i + 1, nextVal - Math.floorDiv(w, 2)) + w);
-            }
-            predicted_values.add(nextVal);
+        for(int i=0; i< hSequence.size(); i++){
+            predicted_values.add(NoiseStream.predict(i, hSequence.get(i), tau, w, random));
         }
 
         return predicted_values;
     }
 
+    /**
+     * Adds noise to a primitive h-sequence, drawing every random number from the given generator so
+     * that the same generator state always gives the same predictions. Simulators that consume the
+     * predictions one by one should use a {@link NoiseStream} instead of storing them.
+     *
+     * @param hSequence The modified sequence.
+     * @param tau       The probability of using the true value of h for each request.
+     * @param w         Noise parameter.
+     * @param random    The random generator of the trial.
+     * @return An array of predicted values with added noise.
+     */
+    public static int[] addNoise(int[] hSequence, double tau, int w, SplittableRandom random){
+        return NoiseStream.fill(hSequence, tau, w, random, new int[hSequence.length]);
+    }
+
     /**
      * Simulates a cache with a modified page eviction algorithm.
      *
@@ -234,7 +294,10 @@ public class Combined {
     public static int findPageToRemove(Map<Integer, Integer> cache){
 
         int pageToRemove = -1;
-        double maxPredictedValue = Double.MIN_VALUE;
+
+        // Integer.MIN_VALUE, not Double.MIN_VALUE (the smallest positive double), so a page is
+        // always picked even when every prediction is zero or negative
+        int maxPredictedValue = Integer.MIN_VALUE;
 
         for(Map.Entry<Integer, Integer> entry : cache.entrySet()){
 
@@ -424,11 +487,55 @@ public class Combined {
         return new int[]{optPageFaults, blindPageFaults, lruPageFaults, combinedPageFaults};
     }
 
+    /**
+     * Executes a single reproducible trial with given values of (k, N, n, ε, τ, w) on the array based
+     * engines. Every random number of the trial (sequence and noise) comes from {@code random}.
+     *
+     * @param k          The cache size.
+     * @param N          The total number of pages.
+     * @param n          The size of the reference string.
+     * @param epsilon    The probability of selecting a page from the local set.
+     * @param tau        The threshold for adding noise to the sequence.
+     * @param w          The working set window size.
+     * @param threshold  The threshold for the Combined algorithm.
+     * @param random     The random generator of this trial.
+     * @return An array containing the page faults for OPT, Blind Oracle, LRU, and Combined algorithms.
+     */
+    public static int[] singleTrial(int k, int N, int n, double epsilon, double tau, int w, double threshold, SplittableRandom random){
+
+        int[] sequence = new int[Math.max(n, k)];
+        generateRandomSequence(k, N, epsilon, random.nextLong(), sequence);
+        int[] hSequence = generateH(sequence);
+
+        return singleTrial(k, sequence, hSequence, tau, w, threshold, random);
+    }
+
+    /**
+     * Executes the noise and simulation stages of a trial on an already generated trace, so that
+     * trials differing only in τ, w or the threshold can share the sequence and its h-sequence.
+     *
+     * @param k          The cache size.
+     * @param sequence   The page request sequence.
+     * @param hSequence  The h-sequence of the sequence.
+     * @param tau        The threshold for adding noise to the sequence.
+     * @param w          The working set window size.
+     * @param threshold  The threshold for the Combined algorithm.
+     * @param random     The random generator of the noise.
+     * @return An array containing the page faults for OPT, Blind Oracle, LRU, and Combined algorithms.
+     */
+    public static int[] singleTrial(int k, int[] sequence, int[] hSequence, double tau, int w, double threshold, SplittableRandom random){
+
+        return TrialSimulator.run(k, sequence, hSequence, tau, w, threshold, random);
+    }
+
     // Function to execute trials of batch size
-    // will return a list of results for each trial
+    // will return the mean page faults of each algorithm
 
     /**
-     * Function to execute trials of a given batch size and return a list of results for each trial.
+     * Function to execute trials of a given batch size in parallel and return the mean page faults
+     * of each algorithm. The trials run on the common fork-join pool; see
+     * {@link TrialScheduler#batchTrial} for a reproducible version with an explicit seed and
+     * {@link TrialScheduler#batchStatistics} for the spread over the trials.
      *
      * @param batchSize  The number of trials to execute.
      * @param k          The cache size.
@@ -438,20 +545,11 @@ public class Combined {
      * @param tau        The threshold for the Combined algorithm.
      * @param w          The working set window size.
      * @param threshold  The threshold for the Combined algorithm.
-     * @return An array containing the total page faults for each algorithm over all trials.
+     * @return An array containing the mean page faults for each algorithm over all trials, not rounded.
      */
-    public static int[] batchTrial(int batchSize, int k, int N, int n, double epsilon, double tau, int w, double threshold) {
-        int[] totalPageFaults = new int[4];
-        for (int i = 0; i < batchSize; i++) {
-            int[] pageFaults = singleTrial(k, N, n, epsilon, tau, w, threshold);
-            for (int j = 0; j < 4; j++) {
-                totalPageFaults[j] += pageFaults[j];
-            }
-        }
-        for (int j = 0; j < 4; j++) {
-            totalPageFaults[j] /= batchSize;
-        }
-        return totalPageFaults;
+    public static double[] batchTrial(int batchSize, int k, int N, int n, double epsilon, double tau, int w, double threshold) {
+        return TrialScheduler.batchTrial(ForkJoinPool.commonPool(), batchSize,
+                k, N, n, epsilon, tau, w, threshold, new Random().nextLong());
     }
 
 
@@ -597,291 +695,91 @@ public class Combined {
 
 
     /**
-     * Method to test and plot page faults vs. cache size (k) for various caching algorithms.
+     * The eight sweeps of Phase 3, two regimes for each of the four trends.
+     *
+     * @return The sweeps behind {@code test13} to {@code test20}, in that order.
      */
-    public static void test13(){
-
-        //  Varying K
-        //  LRU > BlindOracle > OPT
-        //  Regime 1
-
-        String name = "K - Regime 1";
-        List<Integer> kValues = new ArrayList<>(List.of(5,10,15,20,25,30));
-        int n = 10000;
-        double epsilon = 0.5;
-        double tau = 0.5;
-        int w = 200;
-        double threshold = 0.1;
-        int factor = 10;
-        int batchSize = 100;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-        for(int i=0; i< kValues.size(); i++){
-            int N = factor*(kValues.get(i));
-            int[] result = batchTrial(batchSize, kValues.get(i), N, n, epsilon, tau, w, threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
+    public static List<Sweep> phase3Sweeps(){
+        List<Sweep> sweeps = List.of(
+                // Trend 1 - Varying K, N = 10·k
+                // Regime 1: LRU > BlindOracle > OPT
+                new Sweep("K - Regime 1").k(5,10,15,20,25,30).factor(10).epsilon(0.5).tau(0.5),
+                // Regime 2: BlindOracle > LRU > OPT
+                new Sweep("K - Regime 2").k(5,10,15,20).factor(10).epsilon(0.7).tau(0.9),
+
+                // Trend 2 - Varying w
+                new Sweep("w - Regime 1").w(50,100,200,500,1000).epsilon(0.5).tau(0.5),
+                new Sweep("w - Regime 2").w(50,100,200,500,1000).epsilon(0.7).tau(0.9),
+
+                // Trend 3 - Varying epsilon
+                new Sweep("ε - Regime 1").epsilon(0.2,0.3,0.4,0.6,0.7).tau(0.5),
+                new Sweep("ε - Regime 2").epsilon(0.2,0.3,0.4,0.6,0.7).tau(0.9),
+
+                // Trend 4 - Varying tau
+                new Sweep("τ - regime 1").tau(0.45,0.55,0.7,0.8,0.9).epsilon(0.45),
+                new Sweep("τ - regime 2").tau(0.45,0.55,0.7,0.8,0.9).epsilon(0.7)
+        );
+        // trials until every mean is known within ±0.5%, at most 1000 per point
+        for(Sweep sweep : sweeps){
+            sweep.precision(0.005);
         }
-
-        plotPageFaultsVsKorW(optValues, blindValues, lruValues, combinedValues, kValues, name);
-
+        return sweeps;
     }
 
-
-    public static void test14(){
-
-        // Varying K
-        // BlindOracle > LRU > OPT
-        // Regime 2
-
-        String name = "K - Regime 2";
-        List<Integer> kValues = new ArrayList<>(List.of(5,10,15,20));
-        int n = 10000;
-        double epsilon = 0.7;
-        double tau = 0.9;
-        int w = 200;
-        double threshold = 0.1;
-        int factor = 10;
-        int batchSize = 100;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-        for(int i=0; i< kValues.size(); i++){
-            int N = factor*(kValues.get(i));
-            int[] result = batchTrial(batchSize, kValues.get(i), N, n, epsilon, tau, w, threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
+    /**
+     * Runs sweeps as one job and plots them. The trials run on a fork-join pool with one worker per
+     * processor, which is shut down once every sweep is done or one has failed.
+     *
+     * @param sweeps The sweeps to run.
+     */
+    public static void runSweeps(List<Sweep> sweeps){
+        try(ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors())){
+            new SweepRunner(pool, new TraceCache(), isHeadless() ? outputDirectory : null).run(sweeps);
         }
+    }
 
-        plotPageFaultsVsKorW(optValues, blindValues, lruValues, combinedValues, kValues, name);
+    /**
+     * Method to test and plot page faults vs. cache size (k) for various caching algorithms.
+     */
+    public static void test13(){
+        runSweeps(phase3Sweeps().subList(0, 1));
+    }
 
+    public static void test14(){
+        runSweeps(phase3Sweeps().subList(1, 2));
     }
 
     /**
      * Method to test and plot page faults vs. working set size (w) for various caching algorithms.
      */
     public static void test15(){
-
-        // Varying w
-        // LRU > BlindOracle > OPT
-        // Regime 1
-
-        String name = "w - Regime 1";
-        List<Integer> wValues = new ArrayList<>(List.of(50,100,200,500, 1000));
-        int k = 20;
-        int n = 10000;
-        int batchSize = 100;
-        int N = 100;
-        double epsilon = 0.5;
-        double tau = 0.5;
-        double threshold = 0.1;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-        for(int i=0; i< wValues.size(); i++){
-            int[] result = batchTrial(batchSize, k, N, n, epsilon, tau, wValues.get(i), threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
-        }
-
-        plotPageFaultsVsKorW(optValues, blindValues, lruValues, combinedValues, wValues, name);
-
+        runSweeps(phase3Sweeps().subList(2, 3));
     }
 
-
     public static void test16(){
-
-        // Varying w
-        // BlindOracle > LRU > OPT
-        // Regime 2
-
-        String name = "w - Regime 2";
-        List<Integer> wValues = new ArrayList<>(List.of(50,100,200,500, 1000));
-        int k = 20;
-        int n = 10000;
-        int batchSize = 100;
-        int N = 100;
-        double epsilon = 0.7;
-        double tau = 0.9;
-        double threshold = 0.1;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-        for(int i=0; i< wValues.size(); i++){
-            int[] result = batchTrial(batchSize, k, N, n, epsilon, tau, wValues.get(i), threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
-        }
-
-        plotPageFaultsVsKorW(optValues, blindValues, lruValues, combinedValues, wValues, name);
-
+        runSweeps(phase3Sweeps().subList(3, 4));
     }
 
     /**
      * Method to test and plot page faults vs. epsilon for various caching algorithms.
      */
     public static void test17(){
-
-        // Varying epsilon
-        // LRU > BlindOracle > OPT
-        // Regime 1
-
-        String name = "ε - Regime 1";
-        List<Double> epsilonValues = new ArrayList<>(List.of(0.2, 0.3, 0.4, 0.6, 0.7));
-        int k = 20;
-        int N = 100;
-        int n = 10000;
-        int w = 200;
-        int batchSize = 100;
-        double tau = 0.5;
-        double threshold = 0.1;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-
-
-        for(int i=0; i< epsilonValues.size(); i++){
-            int[] result = batchTrial(batchSize, k, N, n, epsilonValues.get(i), tau, w, threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
-        }
-
-
-        plotPageFaultsVsEpsilonorTau(optValues, blindValues, lruValues, combinedValues, epsilonValues, name);
-
+        runSweeps(phase3Sweeps().subList(4, 5));
     }
 
     public static void test18(){
-
-        // Varying epsilon
-        // BlindOracle > LRU > OPT
-        // Regime 2
-
-        String name = "ε - Regime 2";
-        List<Double> epsilonValues = new ArrayList<>(List.of(0.2, 0.3, 0.4, 0.6, 0.7));
-        int k = 20;
-        int N = 100;
-        int n = 10000;
-        int w = 200;
-        int batchSize = 100;
-        double tau = 0.9;
-        double threshold = 0.1;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-
-
-        for(int i=0; i< epsilonValues.size(); i++){
-            int[] result = batchTrial(batchSize, k, N, n, epsilonValues.get(i), tau, w, threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
-        }
-
-
-        plotPageFaultsVsEpsilonorTau(optValues, blindValues, lruValues, combinedValues, epsilonValues, name);
-
+        runSweeps(phase3Sweeps().subList(5, 6));
     }
 
-
     /**
      * Method to test and plot page faults vs. tau for various caching algorithms.
      */
     public static void test19(){
-
-        // Varying tau
-        // LRU > BlindOracle > OPT
-        // Regime 1
-
-        String name = "τ - regime 1";
-        List<Double> tauValues = new ArrayList<>(List.of(0.45, 0.55, 0.7, 0.8, 0.9));
-        int k = 20;
-        int N = 100;
-        int n = 10000;
-        int w = 200;
-        int batchSize = 100;
-        double epsilon = 0.45;
-        double threshold = 0.1;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-        for(int i=0; i< tauValues.size(); i++){
-            int[] result = batchTrial(batchSize, k, N, n, epsilon, tauValues.get(i), w, threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
-        }
-
-        plotPageFaultsVsEpsilonorTau(optValues, blindValues, lruValues, combinedValues, tauValues, name);
-
+        runSweeps(phase3Sweeps().subList(6, 7));
     }
 
-
     public static void test20(){
-
-        // Varying tau
-        // BlindOracle > LRU > OPT
-        // Regime 2
-
-        String name = "τ - regime 2";
-        List<Double> tauValues = new ArrayList<>(List.of(0.45, 0.55, 0.7, 0.8, 0.9));
-        int k = 20;
-        int N = 100;
-        int n = 10000;
-        int w = 200;
-        int batchSize = 100;
-        double epsilon = 0.7;
-        double threshold = 0.1;
-
-        List<Integer> optValues = new ArrayList<>();
-        List<Integer> blindValues = new ArrayList<>();
-        List<Integer> lruValues = new ArrayList<>();
-        List<Integer> combinedValues = new ArrayList<>();
-
-        for(int i=0; i< tauValues.size(); i++){
-            int[] result = batchTrial(batchSize, k, N, n, epsilon, tauValues.get(i), w, threshold);
-            optValues.add(result[0]);
-            blindValues.add(result[1]);
-            lruValues.add(result[2]);
-            combinedValues.add(result[3]);
-        }
-
-        plotPageFaultsVsEpsilonorTau(optValues, blindValues, lruValues, combinedValues, tauValues, name);
-
+        runSweeps(phase3Sweeps().subList(7, 8));
     }
 
 
@@ -898,86 +796,7 @@ public class Combined {
      * @param name             The name of the parameter being varied (k in this case).
      */
     public static void plotPageFaultsVsKorW(List<Integer> optPageFaults, List<Integer> blindPageFaults, List<Integer> lruPageFaults, List<Integer> combinedPageFaults, List<Integer> kValues, String name) {
-        // Create a dataset
-        XYSeriesCollection dataset = new XYSeriesCollection();
-
-        // Add series for each algorithm
-        XYSeries optSeries = new XYSeries("OPT");
-        XYSeries blindSeries = new XYSeries("Blind Oracle");
-        XYSeries lruSeries = new XYSeries("LRU");
-        XYSeries combinedSeries = new XYSeries("Combined");
-
-        for (int i = 0; i < kValues.size(); i++) {
-            optSeries.add(kValues.get(i), optPageFaults.get(i));
-            blindSeries.add(kValues.get(i), blindPageFaults.get(i));
-            lruSeries.add(kValues.get(i), lruPageFaults.get(i));
-            combinedSeries.add(kValues.get(i), combinedPageFaults.get(i));
-        }
-
-        // Add the series to the dataset
-        dataset.addSeries(optSeries);
-        dataset.addSeries(blindSeries);
-        dataset.addSeries(lruSeries);
-        dataset.addSeries(combinedSeries);
-
-        // Create the chart
-        JFreeChart chart = ChartFactory.createXYLineChart(
-                "Page Faults vs. " + name, // chart title
-                name, // x axis label
-                "Page Faults", // y axis label
-                dataset,
-                PlotOrientation.VERTICAL,
-                true,
-                true,
-                false
-        );
-
-        // Customize chart
-        chart.setBackgroundPaint(Color.WHITE);
-        XYPlot plot = chart.getXYPlot();
-        plot.setBackgroundPaint(Color.WHITE);
-
-        XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
-
-
-        renderer.setSeriesPaint(0, Color.BLUE);  // OPT
-        renderer.setSeriesPaint(1, Color.RED);   // Blind Oracle
-        renderer.setSeriesPaint(2, Color.GREEN); // LRU
-        renderer.setSeriesPaint(3, Color.ORANGE);// Combined
-        renderer.setSeriesStroke(0, new BasicStroke(2.0f)); // OPT line thickness
-        renderer.setSeriesStroke(1, new BasicStroke(2.0f)); // Blind Oracle line thickness
-        renderer.setSeriesStroke(2, new BasicStroke(2.0f)); // LRU line thickness
-        renderer.setSeriesStroke(3, new BasicStroke(2.0f)); // Combined line thickness
-
-        // Show points on the lines
-        renderer.setSeriesShapesVisible(0, true); // OPT
-        renderer.setSeriesShapesVisible(1, true); // Blind Oracle
-        renderer.setSeriesShapesVisible(2, true); // LRU
-        renderer.setSeriesShapesVisible(3, true); // Combined
-
-        plot.setRenderer(renderer);
-
-
-        // Customize legend
-        LegendItemCollection legendItems = new LegendItemCollection();
-        legendItems.add(new LegendItem("OPT", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.BLUE));
-        legendItems.add(new LegendItem("Blind Oracle", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.RED));
-        legendItems.add(new LegendItem("LRU", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.GREEN));
-        legendItems.add(new LegendItem("Combined", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.ORANGE));
-        plot.setFixedLegendItems(legendItems);
-
-        // Create and set up the frame
-        JFrame frame = new JFrame("Page Faults vs. " + name);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-
-        // Create chart panel and add it to frame
-        ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 600));
-        frame.setContentPane(chartPanel);
-
-        // Display the frame
-        frame.pack();
-        frame.setVisible(true);
+        showChart(createPageFaultChart(optPageFaults, blindPageFaults, lruPageFaults, combinedPageFaults, kValues, name), name);
     }
 
     /**
@@ -994,28 +813,48 @@ public class Combined {
      */
 
     public static void plotPageFaultsVsEpsilonorTau(List<Integer> optPageFaults, List<Integer> blindPageFaults, List<Integer> lruPageFaults, List<Integer> combinedPageFaults, List<Double> eValues, String name) {
+        showChart(createPageFaultChart(optPageFaults, blindPageFaults, lruPageFaults, combinedPageFaults, eValues, name), name);
+    }
+
+    /**
+     * Builds the chart of page faults vs. the varied parameter used by both plot methods.
+     *
+     * @param optPageFaults    Page faults for the OPT algorithm.
+     * @param blindPageFaults  Page faults for the Blind Oracle algorithm.
+     * @param lruPageFaults    Page faults for the LRU algorithm.
+     * @param combinedPageFaults  Page faults for the Combined algorithm.
+     * @param xValues          Values of the varied parameter.
+     * @param name             The name of the parameter being varied.
+     * @return The chart.
+     */
+    public static JFreeChart createPageFaultChart(List<? extends Number> optPageFaults, List<? extends Number> blindPageFaults, List<? extends Number> lruPageFaults, List<? extends Number> combinedPageFaults, List<? extends Number> xValues, String name) {
+        return createPageFaultChart(List.of("OPT", "Blind Oracle", "LRU", "Combined"),
+                List.of(optPageFaults, blindPageFaults, lruPageFaults, combinedPageFaults), xValues, name);
+    }
+
+    /**
+     * Builds the chart of page faults vs. the varied parameter for any number of algorithms. The
+     * first four series keep the colours of OPT, Blind Oracle, LRU and Combined.
+     *
+     * @param labels     The name of each algorithm.
+     * @param pageFaults The page faults of each algorithm, in the order of the labels.
+     * @param xValues    Values of the varied parameter.
+     * @param name       The name of the parameter being varied.
+     * @return The chart.
+     */
+    public static JFreeChart createPageFaultChart(List<String> labels, List<? extends List<? extends Number>> pageFaults, List<? extends Number> xValues, String name) {
         // Create a dataset
         XYSeriesCollection dataset = new XYSeriesCollection();
 
         // Add series for each algorithm
-        XYSeries optSeries = new XYSeries("OPT");
-        XYSeries blindSeries = new XYSeries("Blind Oracle");
-        XYSeries lruSeries = new XYSeries("LRU");
-        XYSeries combinedSeries = new XYSeries("Combined");
-
-        for (int i = 0; i < eValues.size(); i++) {
-            optSeries.add(eValues.get(i), optPageFaults.get(i));
-            blindSeries.add(eValues.get(i), blindPageFaults.get(i));
-            lruSeries.add(eValues.get(i), lruPageFaults.get(i));
-            combinedSeries.add(eValues.get(i), combinedPageFaults.get(i));
+        for (int j = 0; j < labels.size(); j++) {
+            XYSeries series = new XYSeries(labels.get(j));
+            for (int i = 0; i < xValues.size(); i++) {
+                series.add(xValues.get(i), pageFaults.get(j).get(i));
+            }
+            dataset.addSeries(series);
         }
 
-        // Add the series to the dataset
-        dataset.addSeries(optSeries);
-        dataset.addSeries(blindSeries);
-        dataset.addSeries(lruSeries);
-        dataset.addSeries(combinedSeries);
-
         // Create the chart
         JFreeChart chart = ChartFactory.createXYLineChart(
                 "Page Faults vs. " + name, // chart title
@@ -1035,40 +874,46 @@ public class Combined {
 
         XYLineAndShapeRenderer renderer = new XYLineAndShapeRenderer();
 
+        // OPT, Blind Oracle, LRU, Combined, then any further policies
+        Color[] colors = {Color.BLUE, Color.RED, Color.GREEN, Color.ORANGE, Color.MAGENTA, Color.CYAN, Color.PINK, Color.DARK_GRAY, Color.BLACK};
 
-        renderer.setSeriesPaint(0, Color.BLUE);  // OPT
-        renderer.setSeriesPaint(1, Color.RED);   // Blind Oracle
-        renderer.setSeriesPaint(2, Color.GREEN); // LRU
-        renderer.setSeriesPaint(3, Color.ORANGE);// Combined
-        renderer.setSeriesStroke(0, new BasicStroke(2.0f)); // OPT line thickness
-        renderer.setSeriesStroke(1, new BasicStroke(2.0f)); // Blind Oracle line thickness
-        renderer.setSeriesStroke(2, new BasicStroke(2.0f)); // LRU line thickness
-        renderer.setSeriesStroke(3, new BasicStroke(2.0f)); // Combined line thickness
-
-        // Show points on the lines
-        renderer.setSeriesShapesVisible(0, true); // OPT
-        renderer.setSeriesShapesVisible(1, true); // Blind Oracle
-        renderer.setSeriesShapesVisible(2, true); // LRU
-        renderer.setSeriesShapesVisible(3, true); // Combined
+        // Customize legend
+        LegendItemCollection legendItems = new LegendItemCollection();
+        for (int j = 0; j < labels.size(); j++) {
+            Color color = colors[j % colors.length];
+            renderer.setSeriesPaint(j, color);
+            renderer.setSeriesStroke(j, new BasicStroke(2.0f)); // line thickness
+            renderer.setSeriesShapesVisible(j, true); // show points on the lines
+            legendItems.add(new LegendItem(labels.get(j), null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, color));
+        }
 
         plot.setRenderer(renderer);
+        plot.setFixedLegendItems(legendItems);
 
+        return chart;
+    }
 
-        // Customize legend
-        LegendItemCollection legendItems = new LegendItemCollection();
-        legendItems.add(new LegendItem("OPT", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.BLUE));
-        legendItems.add(new LegendItem("Blind Oracle", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.RED));
-        legendItems.add(new LegendItem("LRU", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.GREEN));
-        legendItems.add(new LegendItem("Combined", null, null, null, Plot.DEFAULT_LEGEND_ITEM_BOX, Color.ORANGE));
-        plot.setFixedLegendItems(legendItems);
+    /**
+     * Shows a chart in its own window, or renders it to a PNG file in the output directory when
+     * running headless. Closing a window only disposes that window, so the other sweeps keep running.
+     *
+     * @param chart The chart to show.
+     * @param name  The name of the sweep.
+     */
+    public static void showChart(JFreeChart chart, String name) {
+
+        if (isHeadless()) {
+            SweepRecorder.saveChart(outputDirectory, name, chart);
+            return;
+        }
 
         // Create and set up the frame
         JFrame frame = new JFrame("Page Faults vs. " + name);
-        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
         // Create chart panel and add it to frame
         ChartPanel chartPanel = new ChartPanel(chart);
-        chartPanel.setPreferredSize(new Dimension(800, 600));
+        chartPanel.setPreferredSize(new Dimension(SweepRecorder.CHART_WIDTH, SweepRecorder.CHART_HEIGHT));
         frame.setContentPane(chartPanel);
 
         // Display the frame
@@ -1076,47 +921,66 @@ public class Combined {
         frame.setVisible(true);
     }
 
+    /**
+     * @return true when no display is available or {@code java.awt.headless=true}; sweeps are then
+     * written to CSV and PNG files instead of Swing frames.
+     */
+    public static boolean isHeadless() {
+        return GraphicsEnvironment.isHeadless();
+    }
+
 
     /**
      * Main method demonstrating the usage of the functionalities with example parameters.
      *
+     * Runs the eight Phase 3 sweeps as one job, or the sweeps of a properties file given with
+     * {@code --sweeps <file>} (see {@link Sweep#load(Path)}).
+     *
+     * Run with {@code --headless [directory]} (or {@code -Djava.awt.headless=true}) on a machine
+     * without a display: every sweep point is then streamed to a CSV file and the charts are written
+     * as PNG files to the directory (default {@code results}) instead of being shown in frames.
+     *
      * @param args Command-line arguments.
+     * @throws IOException If the sweep file cannot be read.
      */
-    public static void main(String[] args) {
-
-        int numOfThreads = 8;
-        ExecutorService executorService = Executors.newFixedThreadPool(numOfThreads);
-
-        //Trend 1 - Page Faults vs K
-        executorService.submit(Combined::test13);
-        executorService.submit(Combined::test14);
-
-        //Trend 2 - Page Faults vs W
-        executorService.submit(Combined::test15);
-        executorService.submit(Combined::test16);
-
-        //Trend 3 - Page Faults vs Epsilon
-        executorService.submit(Combined::test17);
-        executorService.submit(Combined::test18);
-
-        //Trend 1 - Page Faults vs Tau
-        executorService.submit(Combined::test19);
-        executorService.submit(Combined::test20);
-
-        // Shutdown the executor and wait for the tasks to complete
-        executorService.shutdown();
+    public static void main(String[] args) throws IOException {
+
+        List<Sweep> sweeps = phase3Sweeps();
+        Path replay = null;
+        boolean nextArrivals = false;
+        int[] cacheSizes = {5, 10, 20, 50, 100};
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--headless")) {
+                // must be set before the first AWT class asks whether a display is available
+                System.setProperty("java.awt.headless", "true");
+                if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                    outputDirectory = Path.of(args[++i]);
+                }
+            } else if (args[i].equals("--sweeps") && i + 1 < args.length) {
+                sweeps = Sweep.load(Path.of(args[++i]));
+            } else if (args[i].equals("--replay") && i + 1 < args.length) {
+                replay = Path.of(args[++i]);
+            } else if (args[i].equals("--next-arrivals")) {
+                nextArrivals = true;
+            } else if (args[i].equals("--cache-sizes") && i + 1 < args.length) {
+                cacheSizes = Arrays.stream(args[++i].split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+            } else {
+                throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
 
-        try{
-            if(!executorService.awaitTermination(1, TimeUnit.HOURS)){
-                // Forcefully shutdown if tasks exceed timeout
-                executorService.shutdown();
+        if (replay != null) {
+            // replay a recorded trace instead of running the sweeps
+            TraceFile trace = TraceFile.open(replay);
+            if (nextArrivals && !trace.hasNextArrival()) {
+                trace = new NextArrivalBuilder().build(trace);
             }
-        } catch (InterruptedException e) {
-            // Forcefully shutdown if the thread was interrupted
-            executorService.shutdown();
-            Thread.currentThread().interrupt();
+            TraceReplay.print(trace, cacheSizes, 0.1, System.out);
+            return;
         }
 
+        runSweeps(sweeps);
     }
 }
 
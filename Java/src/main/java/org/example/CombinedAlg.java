@@ -0,0 +1,521 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Array based engine for the combined algorithm, switching between BlindOracle and LRU.
+ *
+ * Both algorithms run as shadow caches of k slots. The BlindOracle shadow orders its slots in an
+ * {@link IndexedHeap} by predicted next arrival and the LRU shadow links its slots into a recency
+ * list, so each request costs O(log k) and nothing is allocated. The real cache is always the
+ * contents of the shadow that is currently followed; a switch only flips which shadow that is and
+ * charges k faults, so no cache contents are ever copied.
+ *
+ * The engine reproduces {@link Combined#combinedAlg} exactly: the first k requests fill both
+ * shadows slot by slot (a page repeated among them occupies several slots, and lookups find the
+ * lowest one), and ties between equal predictions evict the lowest slot, as {@code indexOf} does.
+ *
+ * The {@link #lazy lazy} mode models what a switch costs a real cache instead of charging k. The
+ * real cache is kept apart from the shadows and only fetches pages that are requested: on a fault it
+ * evicts a page the followed shadow no longer holds, the one that shadow evicted last if there is
+ * one. The pages each shadow is missing from the real cache are tracked as the shadows evict, so a
+ * switch costs nothing up front and every request stays O(log k). The faults the real cache takes
+ * while the followed shadow hits are the actual cost of switching. A switch is also only allowed
+ * once the previous one is a dwell time of requests old, so the cache cannot thrash between the
+ * shadows.
+ */
+public final class CombinedAlg implements PagingPolicy {
+
+    private static final int NONE = -1;
+    private static final int BLIND_SHADOW = 0;
+    private static final int LRU_SHADOW = 1;
+
+    private final int k;
+    private final double thr;
+
+    // BlindOracle shadow
+    private final Slots blind;
+    private final IndexedHeap blindHeap;
+    private int pageFaultsBlind;
+
+    // LRU shadow, least recently used at the head
+    private final Slots lru;
+    private final int[] prev;
+    private final int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int pageFaultsLRU;
+
+    private boolean isLRU = true;
+    private int requests;
+    private int switches;
+    private int pageFaultsCombined;
+    private SwitchListener switchListener;
+
+    // lazy mode only: the real cache and the requests that must pass between two switches
+    private final RealCache real;
+    private final int dwell;
+    private int lastSwitch;
+
+    /**
+     * Receives the switches of a combined cache, e.g. to record when and how often it changes its
+     * mind. Called on the simulating thread, before the request that triggered the switch is served.
+     */
+    @FunctionalInterface
+    public interface SwitchListener {
+
+        /**
+         * @param request The index of the request that triggered the switch, starting at 0.
+         * @param toLRU   true if the real cache now follows LRU, false if it follows BlindOracle.
+         */
+        void switched(int request, boolean toLRU);
+    }
+
+    /**
+     * Creates an empty combined cache.
+     *
+     * @param k   The cache size.
+     * @param thr The threshold value for switching between BlindOracle and LRU.
+     */
+    public CombinedAlg(int k, double thr){
+        this(k, thr, PageIndex.hashed(k), PageIndex.hashed(k));
+    }
+
+    CombinedAlg(int k, double thr, PageIndex blindIndex, PageIndex lruIndex){
+        this(k, thr, blindIndex, lruIndex, null, 0);
+    }
+
+    CombinedAlg(int k, double thr, PageIndex blindIndex, PageIndex lruIndex, PageIndex realIndex, int dwell){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        if(dwell < 0){
+            throw new IllegalArgumentException("Dwell time must not be negative, got " + dwell);
+        }
+        this.k = k;
+        this.thr = thr;
+        this.blind = new Slots(k, blindIndex);
+        this.blindHeap = new IndexedHeap(k);
+        this.lru = new Slots(k, lruIndex);
+        this.prev = new int[k];
+        this.next = new int[k];
+        this.real = realIndex == null ? null : new RealCache(k, realIndex);
+        this.dwell = dwell;
+    }
+
+    /**
+     * Creates an empty combined cache in lazy mode, whose real cache is reconciled with the followed
+     * shadow page by page.
+     *
+     * @param k     The cache size.
+     * @param thr   The threshold value for switching between BlindOracle and LRU.
+     * @param dwell The number of requests that must pass after a switch before the next one, e.g. k.
+     * @return The cache.
+     */
+    public static CombinedAlg lazy(int k, double thr, int dwell){
+        return new CombinedAlg(k, thr, PageIndex.hashed(k), PageIndex.hashed(k), PageIndex.hashed(k), dwell);
+    }
+
+    /**
+     * Serves one page request.
+     *
+     * @param page      The requested page.
+     * @param predicted The predicted next arrival of the page.
+     * @return true if the real cache faulted on this request (switch costs are not included).
+     */
+    @Override
+    public boolean onRequest(int page, int predicted){
+
+        int i = requests++;
+
+        if(i < k){
+            // the first k requests fill both shadows, one slot each
+            blind.fill(i, page);
+            blindHeap.set(i, key(predicted, i));
+            lru.fill(i, page);
+            append(i);
+            pageFaultsBlind++;
+            pageFaultsLRU++;
+            return served(page, true, true);
+        }
+
+        if(isLRU && (pageFaultsLRU > (1 + thr) * pageFaultsBlind) && maySwitch(i)){
+            switchTo(i, false);
+        }
+
+        if((!isLRU) && (pageFaultsBlind > (1 + thr) * pageFaultsLRU) && maySwitch(i)){
+            switchTo(i, true);
+        }
+
+        boolean blindFault = false;
+
+        int slot = blind.find(page);
+        if(slot == PageIndex.ABSENT){
+            slot = blindHeap.top();
+            int victim = blind.page[slot];
+            blind.replace(slot, page);
+            pageFaultsBlind++;
+            blindFault = true;
+            if(real != null && blind.find(victim) == PageIndex.ABSENT){
+                real.shadowEvicted(BLIND_SHADOW, victim);
+            }
+        }
+        blindHeap.set(slot, key(predicted, slot));
+
+        boolean lruFault = false;
+
+        slot = lru.find(page);
+        if(slot == PageIndex.ABSENT){
+            slot = head;
+            int victim = lru.page[slot];
+            lru.replace(slot, page);
+            pageFaultsLRU++;
+            lruFault = true;
+            if(real != null && lru.find(victim) == PageIndex.ABSENT){
+                real.shadowEvicted(LRU_SHADOW, victim);
+            }
+        }
+        if(slot != tail){
+            unlink(slot);
+            append(slot);
+        }
+
+        return served(page, blindFault, lruFault);
+    }
+
+    // counts the fault of the real cache, which in lazy mode is reconciled with the followed shadow
+    private boolean served(int page, boolean blindFault, boolean lruFault){
+        boolean fault;
+        if(real == null){
+            fault = isLRU ? lruFault : blindFault;
+        }else{
+            fault = real.serve(page, isLRU ? LRU_SHADOW : BLIND_SHADOW, isLRU ? lruFault : blindFault);
+        }
+        if(fault){
+            pageFaultsCombined++;
+        }
+        return fault;
+    }
+
+    // the eager mode may switch on any request, the lazy one only after its dwell time
+    private boolean maySwitch(int i){
+        return real == null || i - lastSwitch >= dwell;
+    }
+
+    private void switchTo(int i, boolean toLRU){
+        if(real == null){
+            pageFaultsCombined += k;
+        }
+        isLRU = toLRU;
+        lastSwitch = i;
+        switches++;
+        if(switchListener != null){
+            switchListener.switched(i, toLRU);
+        }
+    }
+
+    /**
+     * @return The total number of page faults incurred by the combined algorithm: switches charged k
+     *         each in the eager mode, the faults of the real cache in the lazy mode.
+     */
+    @Override
+    public int pageFaults(){
+        return pageFaultsCombined;
+    }
+
+    /**
+     * @return The number of pages in the real cache: in the eager mode the slots of the followed
+     *         shadow, which the first k requests fill even when pages repeat among them.
+     */
+    @Override
+    public int cached(){
+        return real == null ? Math.min(requests, k) : real.used;
+    }
+
+    /**
+     * Empties both shadows and resets every counter; the real cache starts following LRU again.
+     */
+    @Override
+    public void reset(){
+        blind.clear();
+        blindHeap.clear();
+        lru.clear();
+        head = NONE;
+        tail = NONE;
+        pageFaultsBlind = 0;
+        pageFaultsLRU = 0;
+        pageFaultsCombined = 0;
+        isLRU = true;
+        requests = 0;
+        switches = 0;
+        lastSwitch = 0;
+        if(real != null){
+            real.clear();
+        }
+    }
+
+    /**
+     * @return The page faults of the BlindOracle shadow.
+     */
+    public int blindPageFaults(){
+        return pageFaultsBlind;
+    }
+
+    /**
+     * @return The page faults of the LRU shadow.
+     */
+    public int lruPageFaults(){
+        return pageFaultsLRU;
+    }
+
+    /**
+     * @return true while the real cache follows the LRU shadow.
+     */
+    public boolean isLRU(){
+        return isLRU;
+    }
+
+    /**
+     * @return The number of switches between the two shadows so far.
+     */
+    public int switches(){
+        return switches;
+    }
+
+    /**
+     * @return true if the cache is in lazy mode.
+     */
+    public boolean isLazy(){
+        return real != null;
+    }
+
+    /**
+     * @return The faults of the real cache on requests the followed shadow hit, i.e. what the
+     *         switches actually cost; always 0 in the eager mode.
+     */
+    public int reconciliationFaults(){
+        return real == null ? 0 : real.reconciliations;
+    }
+
+    /**
+     * Sets the listener told about every switch; the check for it is only made when switching, so
+     * requests cost the same with or without one.
+     *
+     * @param listener The listener, or null to remove it.
+     */
+    public void setSwitchListener(SwitchListener listener){
+        this.switchListener = listener;
+    }
+
+    /**
+     * Simulates the combined algorithm over a whole sequence.
+     *
+     * @param k    The cache size.
+     * @param seq  The original page request sequence.
+     * @param hSeq The predicted next arrival of each request.
+     * @param thr  The threshold value for switching between BlindOracle and LRU.
+     * @return The total number of page faults incurred by the combined algorithm.
+     */
+    public static int pageFaults(int k, int[] seq, int[] hSeq, double thr){
+        CombinedAlg cache = new CombinedAlg(k, thr, PageIndex.forPages(seq, k), PageIndex.forPages(seq, k));
+        for(int i = 0; i < seq.length; i++){
+            cache.onRequest(seq[i], hSeq[i]);
+        }
+        return cache.pageFaults();
+    }
+
+    /**
+     * Simulates the lazy combined algorithm over a whole sequence.
+     *
+     * @param k     The cache size.
+     * @param seq   The original page request sequence.
+     * @param hSeq  The predicted next arrival of each request.
+     * @param thr   The threshold value for switching between BlindOracle and LRU.
+     * @param dwell The number of requests that must pass after a switch before the next one.
+     * @return The page faults of the real cache.
+     */
+    public static int lazyPageFaults(int k, int[] seq, int[] hSeq, double thr, int dwell){
+        PageIndex pages = PageIndex.forPages(seq, k);
+        CombinedAlg cache = new CombinedAlg(k, thr, pages, pages.emptyCopy(k), pages.emptyCopy(k), dwell);
+        return PagingPolicy.pageFaults(cache, seq, hSeq);
+    }
+
+    // prediction in the high bits; among equal predictions the lower slot ranks higher
+    private static long key(int predicted, int slot){
+        return ((long) predicted << 32) | (Integer.MAX_VALUE - slot);
+    }
+
+    private void unlink(int slot){
+        int p = prev[slot];
+        int q = next[slot];
+        if(p == NONE) head = q; else next[p] = q;
+        if(q == NONE) tail = p; else prev[q] = p;
+    }
+
+    private void append(int slot){
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if(tail == NONE) head = slot; else next[tail] = slot;
+        tail = slot;
+    }
+
+    /**
+     * The page held by each slot of a shadow cache. A page maps to the lowest slot holding it;
+     * further slots holding the same page (only possible after the initial fill) are chained in
+     * slot order so the next one takes over when the lowest is evicted.
+     */
+    private static final class Slots {
+
+        private final PageIndex index;
+        private final int[] page;
+        private final int[] dupPrev;
+        private final int[] dupNext;
+        private final int[] chainTail; // valid for the lowest slot of each page
+
+        Slots(int k, PageIndex index){
+            this.index = index;
+            this.page = new int[k];
+            this.dupPrev = new int[k];
+            this.dupNext = new int[k];
+            this.chainTail = new int[k];
+        }
+
+        int find(int p){
+            return index.get(p);
+        }
+
+        void clear(){
+            index.clear();
+        }
+
+        // slots are filled in increasing order, so a repeated page goes to the end of its chain
+        void fill(int slot, int p){
+            page[slot] = p;
+            dupPrev[slot] = NONE;
+            dupNext[slot] = NONE;
+            chainTail[slot] = slot;
+            int first = index.get(p);
+            if(first == PageIndex.ABSENT){
+                index.put(p, slot);
+            }else{
+                int last = chainTail[first];
+                dupNext[last] = slot;
+                dupPrev[slot] = last;
+                chainTail[first] = slot;
+            }
+        }
+
+        // evicts the page in the slot and stores a page that is not cached
+        void replace(int slot, int p){
+            int old = page[slot];
+            int before = dupPrev[slot];
+            int after = dupNext[slot];
+            if(before == NONE){
+                if(after == NONE){
+                    index.remove(old);
+                }else{
+                    index.put(old, after);
+                    dupPrev[after] = NONE;
+                    chainTail[after] = chainTail[slot];
+                }
+            }else{
+                dupNext[before] = after;
+                if(after == NONE){
+                    chainTail[index.get(old)] = before;
+                }else{
+                    dupPrev[after] = before;
+                }
+            }
+
+            page[slot] = p;
+            dupPrev[slot] = NONE;
+            dupNext[slot] = NONE;
+            chainTail[slot] = slot;
+            index.put(p, slot);
+        }
+    }
+
+    /**
+     * The real cache of the lazy mode. It holds distinct pages only and, for each shadow, a stack of
+     * its slots whose page that shadow does not hold, so a victim is found in O(1). Every page it
+     * loads is the current request, which both shadows hold once they have served it, so a page only
+     * becomes stale when a shadow evicts it.
+     */
+    private static final class RealCache {
+
+        private final PageIndex index;
+        private final int[] page;
+        private int used;
+
+        // per shadow: stale slots as a stack, and each slot's position in it or NONE
+        private final int[][] stale;
+        private final int[][] stalePosition;
+        private final int[] staleSize = new int[2];
+
+        private int reconciliations;
+
+        RealCache(int k, PageIndex index){
+            this.index = index;
+            this.page = new int[k];
+            this.stale = new int[2][k];
+            this.stalePosition = new int[2][k];
+            Arrays.fill(stalePosition[BLIND_SHADOW], NONE);
+            Arrays.fill(stalePosition[LRU_SHADOW], NONE);
+        }
+
+        // a shadow no longer holds a page; if the real cache does, it is stale for that shadow
+        void shadowEvicted(int shadow, int p){
+            int slot = index.get(p);
+            if(slot != PageIndex.ABSENT && stalePosition[shadow][slot] == NONE){
+                stalePosition[shadow][slot] = staleSize[shadow];
+                stale[shadow][staleSize[shadow]++] = slot;
+            }
+        }
+
+        // serves a request both shadows have already served; returns true on a fault
+        boolean serve(int p, int shadow, boolean shadowFaulted){
+            int slot = index.get(p);
+            if(slot != PageIndex.ABSENT){
+                fresh(BLIND_SHADOW, slot);
+                fresh(LRU_SHADOW, slot);
+                return false;
+            }
+            if(!shadowFaulted){
+                reconciliations++;
+            }
+            if(used < page.length){
+                slot = used++;
+            }else{
+                // the shadow holds p and the real cache does not, so some real page is stale for it
+                slot = stale[shadow][staleSize[shadow] - 1];
+                fresh(BLIND_SHADOW, slot);
+                fresh(LRU_SHADOW, slot);
+                index.remove(page[slot]);
+            }
+            page[slot] = p;
+            index.put(p, slot);
+            return true;
+        }
+
+        private void fresh(int shadow, int slot){
+            int at = stalePosition[shadow][slot];
+            if(at == NONE){
+                return;
+            }
+            int last = stale[shadow][--staleSize[shadow]];
+            stale[shadow][at] = last;
+            stalePosition[shadow][last] = at;
+            stalePosition[shadow][slot] = NONE;
+        }
+
+        void clear(){
+            index.clear();
+            used = 0;
+            Arrays.fill(stalePosition[BLIND_SHADOW], NONE);
+            Arrays.fill(stalePosition[LRU_SHADOW], NONE);
+            staleSize[BLIND_SHADOW] = 0;
+            staleSize[LRU_SHADOW] = 0;
+            reconciliations = 0;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example;
+
+/**
+ * Array based FIFO (First In First Out) paging engine.
+ *
+ * The k slots are filled in order and then reused round robin, so the slot after the last one
+ * replaced always holds the oldest page. A hit changes nothing and a miss costs one table update.
+ */
+public final class FIFO implements PagingPolicy {
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+
+    private int used;
+    private int hand; // slot of the oldest page once the cache is full
+    private int pageFaults;
+
+    /**
+     * Creates an empty FIFO cache.
+     *
+     * @param k The cache size.
+     */
+    public FIFO(int k){
+        this(k, PageIndex.hashed(k));
+    }
+
+    FIFO(int k, PageIndex slots){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+    }
+
+    /**
+     * Serves one page request; FIFO ignores the prediction.
+     *
+     * @param page       The requested page.
+     * @param prediction Ignored.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        if(slots.get(page) != PageIndex.ABSENT){
+            return false;
+        }
+
+        pageFaults++;
+
+        int slot;
+        if(used < k){
+            slot = used++;
+        }else{
+            // evict the page loaded first
+            slot = hand;
+            hand = (hand + 1 == k) ? 0 : hand + 1;
+            slots.remove(slotPage[slot]);
+        }
+
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        return true;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+        }
+        used = 0;
+        hand = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * Simulates a FIFO cache over a whole sequence.
+     *
+     * @param k   The cache size.
+     * @param seq The page request sequence.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq){
+        return PagingPolicy.pageFaults(new FIFO(k, PageIndex.forPages(seq, k)), seq, null);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * An indexed binary max-heap over the cache slots {@code 0..capacity-1}.
+ *
+ * Every slot has a {@code long} key and the heap remembers where each slot sits, so the key of a
+ * slot already in the heap can be raised or lowered in O(log k) and the slot with the largest key
+ * is read in O(1). Callers pack their own tie-breaking into the low bits of the key.
+ */
+final class IndexedHeap {
+
+    private final int[] heap;     // heap position -> slot
+    private final int[] position; // slot -> heap position, -1 when not in the heap
+    private final long[] keys;    // slot -> key
+    private int size;
+
+    IndexedHeap(int capacity){
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    int size(){
+        return size;
+    }
+
+    boolean contains(int slot){
+        return position[slot] >= 0;
+    }
+
+    /**
+     * @return The slot with the largest key.
+     */
+    int top(){
+        return heap[0];
+    }
+
+    long key(int slot){
+        return keys[slot];
+    }
+
+    /**
+     * Adds a slot, or changes its key if it is already in the heap.
+     *
+     * @param slot The cache slot.
+     * @param key  The new key of the slot.
+     */
+    void set(int slot, long key){
+        int at = position[slot];
+        if(at < 0){
+            keys[slot] = key;
+            heap[size] = slot;
+            position[slot] = size;
+            siftUp(size++);
+            return;
+        }
+        long old = keys[slot];
+        keys[slot] = key;
+        if(key > old){
+            siftUp(at);
+        }else if(key < old){
+            siftDown(at);
+        }
+    }
+
+    /**
+     * Removes a slot from the heap.
+     *
+     * @param slot The cache slot.
+     */
+    void remove(int slot){
+        int at = position[slot];
+        if(at < 0){
+            return;
+        }
+        int last = heap[--size];
+        position[slot] = -1;
+        if(at == size){
+            return;
+        }
+        heap[at] = last;
+        position[last] = at;
+        siftDown(at);
+        siftUp(position[last]);
+    }
+
+    void clear(){
+        for(int i = 0; i < size; i++){
+            position[heap[i]] = -1;
+        }
+        size = 0;
+    }
+
+    private void siftUp(int at){
+        int slot = heap[at];
+        long key = keys[slot];
+        while(at > 0){
+            int parent = (at - 1) >>> 1;
+            int parentSlot = heap[parent];
+            if(keys[parentSlot] >= key){
+                break;
+            }
+            heap[at] = parentSlot;
+            position[parentSlot] = at;
+            at = parent;
+        }
+        heap[at] = slot;
+        position[slot] = at;
+    }
+
+    private void siftDown(int at){
+        int slot = heap[at];
+        long key = keys[slot];
+        int half = size >>> 1;
+        while(at < half){
+            int child = 2 * at + 1;
+            int childSlot = heap[child];
+            int right = child + 1;
+            if(right < size && keys[heap[right]] > keys[childSlot]){
+                child = right;
+                childSlot = heap[right];
+            }
+            if(key >= keys[childSlot]){
+                break;
+            }
+            heap[at] = childSlot;
+            position[childSlot] = at;
+            at = child;
+        }
+        heap[at] = slot;
+        position[slot] = at;
+    }
+}
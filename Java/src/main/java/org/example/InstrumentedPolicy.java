@@ -0,0 +1,277 @@
+package org.example;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Opt-in instrumentation for any {@link PagingPolicy}: a decorator that counts what the engine does
+ * and why, without touching the engine itself. An engine that is not wrapped pays nothing.
+ *
+ * It records hits, misses and evictions, the fault rate of every window of requests, and, when
+ * timed, the latency of each request in a {@link LatencyHistogram}. A fault is an eviction when the
+ * engine's {@link PagingPolicy#cached} count of pages does not grow. Wrapping a {@link CombinedAlg}
+ * also records the request index of its switches through a {@link CombinedAlg.SwitchListener}.
+ * Only the most recent {@value #HISTORY} windows and switches are kept, so the memory stays fixed on
+ * endless streams. The metrics can be read through JMX after {@link #register}, or dumped with
+ * {@link #toJson}.
+ *
+ * Like the engines, an instrumented policy is driven by one thread. JMX and other readers see the
+ * counters without locking, so a reading taken mid-request may be a request behind.
+ */
+public final class InstrumentedPolicy implements PagingPolicy, PolicyMetricsMXBean {
+
+    /** Number of windows and switches kept. */
+    public static final int HISTORY = 1024;
+
+    private final PagingPolicy policy;
+    private final int window;
+    private final LatencyHistogram latency;
+
+    private long requests;
+    private long misses;
+    private long evictions;
+
+    private int windowRequests;
+    private int windowFaults;
+    private final double[] windowRates = new double[HISTORY];
+    private long windows;
+
+    private final int[] switchRequests = new int[HISTORY];
+    private long switches;
+
+    private ObjectName name;
+
+    /**
+     * @param policy The engine to instrument.
+     * @param window The number of requests per window of the fault rate series.
+     * @param timed  true to time every request, which costs two {@link System#nanoTime} calls each.
+     */
+    public InstrumentedPolicy(PagingPolicy policy, int window, boolean timed){
+        if(window < 1){
+            throw new IllegalArgumentException("Window must be positive, got " + window);
+        }
+        this.policy = policy;
+        this.window = window;
+        this.latency = timed ? new LatencyHistogram() : null;
+        if(policy instanceof CombinedAlg combined){
+            combined.setSwitchListener((request, toLRU) -> switchRequests[(int) (switches++ % HISTORY)] = request);
+        }
+    }
+
+    @Override
+    public boolean onRequest(int page, int prediction){
+        int cached = policy.cached();
+        boolean fault;
+        if(latency != null){
+            long start = System.nanoTime();
+            fault = policy.onRequest(page, prediction);
+            latency.record(System.nanoTime() - start);
+        }else{
+            fault = policy.onRequest(page, prediction);
+        }
+        requests++;
+        windowRequests++;
+        if(fault){
+            misses++;
+            windowFaults++;
+            if(policy.cached() == cached){
+                evictions++;
+            }
+        }
+        if(windowRequests == window){
+            windowRates[(int) (windows++ % HISTORY)] = (double) windowFaults / window;
+            windowRequests = 0;
+            windowFaults = 0;
+        }
+        return fault;
+    }
+
+    @Override
+    public int pageFaults(){
+        return policy.pageFaults();
+    }
+
+    @Override
+    public int cached(){
+        return policy.cached();
+    }
+
+    /**
+     * Resets the engine and every metric.
+     */
+    @Override
+    public void reset(){
+        policy.reset();
+        requests = 0;
+        misses = 0;
+        evictions = 0;
+        windowRequests = 0;
+        windowFaults = 0;
+        windows = 0;
+        switches = 0;
+        if(latency != null){
+            latency.reset();
+        }
+    }
+
+    /**
+     * @return The instrumented engine.
+     */
+    public PagingPolicy policy(){
+        return policy;
+    }
+
+    /**
+     * @return The request latencies, or null when untimed.
+     */
+    public LatencyHistogram latency(){
+        return latency;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server.
+     *
+     * @param name The name of the policy in its object name, e.g. "combined".
+     * @throws JMException If the name is invalid or already registered.
+     */
+    public void register(String name) throws JMException{
+        ObjectName objectName = new ObjectName("org.example:type=PagingPolicy,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        this.name = objectName;
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server, if registered.
+     *
+     * @throws JMException If the MBean server refuses.
+     */
+    public void unregister() throws JMException{
+        if(name != null){
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if(server.isRegistered(name)){
+                server.unregisterMBean(name);
+            }
+            name = null;
+        }
+    }
+
+    @Override
+    public String getPolicy(){
+        return policy.getClass().getSimpleName();
+    }
+
+    @Override
+    public long getRequests(){
+        return requests;
+    }
+
+    @Override
+    public long getHits(){
+        return requests - misses;
+    }
+
+    @Override
+    public long getMisses(){
+        return misses;
+    }
+
+    @Override
+    public long getEvictions(){
+        return evictions;
+    }
+
+    @Override
+    public int getPageFaults(){
+        return policy.pageFaults();
+    }
+
+    @Override
+    public double getFaultRate(){
+        return requests == 0 ? 0 : (double) policy.pageFaults() / requests;
+    }
+
+    @Override
+    public long getSwitches(){
+        return switches;
+    }
+
+    @Override
+    public int[] getRecentSwitches(){
+        int kept = (int) Math.min(switches, HISTORY);
+        int[] recent = new int[kept];
+        for(int j = 0; j < kept; j++){
+            recent[j] = switchRequests[(int) ((switches - kept + j) % HISTORY)];
+        }
+        return recent;
+    }
+
+    @Override
+    public int getWindow(){
+        return window;
+    }
+
+    @Override
+    public double[] getRecentWindowFaultRates(){
+        int kept = (int) Math.min(windows, HISTORY);
+        double[] recent = new double[kept];
+        for(int j = 0; j < kept; j++){
+            recent[j] = windowRates[(int) ((windows - kept + j) % HISTORY)];
+        }
+        return recent;
+    }
+
+    @Override
+    public long getLatencyP50Nanos(){
+        return latency == null ? 0 : latency.percentile(50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos(){
+        return latency == null ? 0 : latency.percentile(99);
+    }
+
+    @Override
+    public long getLatencyMaxNanos(){
+        return latency == null ? 0 : latency.max();
+    }
+
+    @Override
+    public String toJson(){
+        StringBuilder json = new StringBuilder("{");
+        json.append("\"policy\":\"").append(getPolicy()).append('"');
+        json.append(",\"requests\":").append(requests);
+        json.append(",\"hits\":").append(getHits());
+        json.append(",\"misses\":").append(misses);
+        json.append(",\"evictions\":").append(getEvictions());
+        json.append(",\"pageFaults\":").append(policy.pageFaults());
+        json.append(",\"faultRate\":").append(format(getFaultRate()));
+        json.append(",\"switches\":{\"count\":").append(switches).append(",\"recent\":[");
+        int[] recentSwitches = getRecentSwitches();
+        for(int j = 0; j < recentSwitches.length; j++){
+            json.append(j == 0 ? "" : ",").append(recentSwitches[j]);
+        }
+        json.append("]},\"window\":").append(window).append(",\"windowFaultRates\":[");
+        double[] rates = getRecentWindowFaultRates();
+        for(int j = 0; j < rates.length; j++){
+            json.append(j == 0 ? "" : ",").append(format(rates[j]));
+        }
+        json.append(']');
+        if(latency != null){
+            json.append(",\"latencyNanos\":{\"count\":").append(latency.count());
+            json.append(",\"mean\":").append(format(latency.mean()));
+            json.append(",\"p50\":").append(latency.percentile(50));
+            json.append(",\"p90\":").append(latency.percentile(90));
+            json.append(",\"p99\":").append(latency.percentile(99));
+            json.append(",\"p999\":").append(latency.percentile(99.9));
+            json.append(",\"max\":").append(latency.max()).append('}');
+        }
+        return json.append('}').toString();
+    }
+
+    private static String format(double value){
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+}
@@ -0,0 +1,187 @@
+package org.example;
+
+/**
+ * Array based LFU (Least Frequently Used) paging engine with O(1) requests.
+ *
+ * Every cached page counts its hits since it was loaded. Slots with the same count are linked into
+ * one bucket, oldest first, and the buckets are linked in increasing order of their count; a hit
+ * moves its slot from the bucket of count f to the tail of the bucket of f + 1, created next to it
+ * if needed, and a miss evicts the head of the first bucket, i.e. the least recently promoted of the
+ * least frequently used pages. Neither walks the cache. Only buckets with pages are kept, at most k
+ * of them, so the memory is O(k) however often a page is hit, and counts are longs that do not wrap.
+ */
+public final class LFU implements PagingPolicy {
+
+    private static final int NONE = -1;
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final int[] slotBucket;
+    private final int[] prev;
+    private final int[] next;
+
+    // the buckets, drawn from a pool of k + 1: a hit may create the next bucket before its own empties
+    private final long[] count;
+    private final int[] bucketHead;
+    private final int[] bucketTail;
+    private final int[] bucketPrev;
+    private final int[] bucketNext;
+    private int firstBucket = NONE;
+    private int freeBucket;
+
+    private int used;
+    private int pageFaults;
+
+    /**
+     * Creates an empty LFU cache.
+     *
+     * @param k The cache size.
+     */
+    public LFU(int k){
+        this(k, PageIndex.hashed(k));
+    }
+
+    LFU(int k, PageIndex slots){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.slotBucket = new int[k];
+        this.prev = new int[k];
+        this.next = new int[k];
+        this.count = new long[k + 1];
+        this.bucketHead = new int[k + 1];
+        this.bucketTail = new int[k + 1];
+        this.bucketPrev = new int[k + 1];
+        this.bucketNext = new int[k + 1];
+        freeBuckets();
+    }
+
+    /**
+     * Serves one page request; LFU ignores the prediction.
+     *
+     * @param page       The requested page.
+     * @param prediction Ignored.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        int slot = slots.get(page);
+
+        if(slot != PageIndex.ABSENT){
+            int bucket = slotBucket[slot];
+            int promoted = bucketNext[bucket];
+            if(promoted == NONE || count[promoted] != count[bucket] + 1){
+                promoted = newBucket(count[bucket] + 1, bucket);
+            }
+            unlink(slot);
+            append(slot, promoted);
+            return false;
+        }
+
+        pageFaults++;
+
+        if(used < k){
+            slot = used++;
+        }else{
+            // evict the oldest page of the least frequently used bucket
+            slot = bucketHead[firstBucket];
+            unlink(slot);
+            slots.remove(slotPage[slot]);
+        }
+
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        int first = firstBucket;
+        if(first == NONE || count[first] != 1){
+            first = newBucket(1, NONE);
+        }
+        append(slot, first);
+        return true;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+        }
+        freeBuckets();
+        used = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * Simulates an LFU cache over a whole sequence.
+     *
+     * @param k   The cache size.
+     * @param seq The page request sequence.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq){
+        return PagingPolicy.pageFaults(new LFU(k, PageIndex.forPages(seq, k)), seq, null);
+    }
+
+    // takes a bucket from the pool and links it after another, or first for NONE
+    private int newBucket(long c, int after){
+        int bucket = freeBucket;
+        freeBucket = bucketNext[bucket];
+        count[bucket] = c;
+        bucketHead[bucket] = NONE;
+        bucketTail[bucket] = NONE;
+        int before = after == NONE ? firstBucket : bucketNext[after];
+        bucketPrev[bucket] = after;
+        bucketNext[bucket] = before;
+        if(after == NONE) firstBucket = bucket; else bucketNext[after] = bucket;
+        if(before != NONE) bucketPrev[before] = bucket;
+        return bucket;
+    }
+
+    // removes a slot from its bucket, and the bucket from the list once it is empty
+    private void unlink(int slot){
+        int bucket = slotBucket[slot];
+        int p = prev[slot];
+        int q = next[slot];
+        if(p == NONE) bucketHead[bucket] = q; else next[p] = q;
+        if(q == NONE) bucketTail[bucket] = p; else prev[q] = p;
+        if(bucketHead[bucket] == NONE){
+            int before = bucketPrev[bucket];
+            int after = bucketNext[bucket];
+            if(before == NONE) firstBucket = after; else bucketNext[before] = after;
+            if(after != NONE) bucketPrev[after] = before;
+            bucketNext[bucket] = freeBucket;
+            freeBucket = bucket;
+        }
+    }
+
+    private void append(int slot, int bucket){
+        int tail = bucketTail[bucket];
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if(tail == NONE) bucketHead[bucket] = slot; else next[tail] = slot;
+        bucketTail[bucket] = slot;
+        slotBucket[slot] = bucket;
+    }
+
+    private void freeBuckets(){
+        for(int bucket = 0; bucket <= k; bucket++){
+            bucketNext[bucket] = bucket + 1;
+        }
+        bucketNext[k] = NONE;
+        freeBucket = 0;
+        firstBucket = NONE;
+    }
+}
@@ -0,0 +1,143 @@
+package org.example;
+
+/**
+ * Array based LRU (Least Recently Used) paging engine.
+ *
+ * The cache is a set of k slots linked into a recency list through the parallel {@code prev} and
+ * {@code next} arrays, least recently used at the head and most recently used at the tail. A
+ * {@link PageIndex} maps a page to its slot, so a hit (unlink and append) and a miss (reuse the head
+ * slot) are O(1) and the request loop never boxes a page or allocates an iterator. Page fault
+ * counts are identical to {@link Combined#LRU}.
+ */
+public final class LRU implements PagingPolicy {
+
+    private static final int NONE = -1;
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final int[] prev;
+    private final int[] next;
+
+    private int head = NONE; // least recently used
+    private int tail = NONE; // most recently used
+    private int used;
+    private int pageFaults;
+
+    /**
+     * Creates an empty LRU cache.
+     *
+     * @param k The cache size.
+     */
+    public LRU(int k){
+        this(k, PageIndex.hashed(k));
+    }
+
+    LRU(int k, PageIndex slots){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.prev = new int[k];
+        this.next = new int[k];
+    }
+
+    /**
+     * Serves one page request; LRU ignores the prediction.
+     *
+     * @param page       The requested page.
+     * @param prediction Ignored.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        int slot = slots.get(page);
+
+        if(slot != PageIndex.ABSENT){
+            // hit: the page becomes the most recently used
+            if(slot != tail){
+                unlink(slot);
+                append(slot);
+            }
+            return false;
+        }
+
+        pageFaults++;
+
+        if(used < k){
+            slot = used++;
+        }else{
+            // evict the least recently used page
+            slot = head;
+            slots.remove(slotPage[slot]);
+            unlink(slot);
+        }
+
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        append(slot);
+        return true;
+    }
+
+    /**
+     * @return The number of page faults so far.
+     */
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    /**
+     * @return The number of pages in the cache.
+     */
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    /**
+     * Empties the cache and resets the fault counter.
+     */
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+        }
+        head = NONE;
+        tail = NONE;
+        used = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * Simulates an LRU cache over a whole sequence.
+     *
+     * @param k        The cache size.
+     * @param inputSeq The original page request sequence.
+     * @return The number of page faults incurred by the LRU algorithm.
+     */
+    public static int pageFaults(int k, int[] inputSeq){
+        LRU cache = new LRU(k, PageIndex.forPages(inputSeq, k));
+        for(int page : inputSeq){
+            cache.onRequest(page, 0);
+        }
+        return cache.pageFaults();
+    }
+
+    private void unlink(int slot){
+        int p = prev[slot];
+        int q = next[slot];
+        if(p == NONE) head = q; else next[p] = q;
+        if(q == NONE) tail = p; else prev[q] = p;
+    }
+
+    private void append(int slot){
+        prev[slot] = tail;
+        next[slot] = NONE;
+        if(tail == NONE) head = slot; else next[tail] = slot;
+        tail = slot;
+    }
+}
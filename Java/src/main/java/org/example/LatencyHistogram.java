@@ -0,0 +1,111 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative long values, normally request latencies in nanoseconds, in the style
+ * of HdrHistogram: log-linear buckets with a fixed relative precision and a fixed footprint.
+ *
+ * Values below 64 get a bucket each; above that every power of two is split into 32 sub-buckets,
+ * so a recorded value is off by at most 1/32 (about 3%) and the whole long range takes under 2000
+ * counters. {@link #record} is a few shifts and an array increment and never allocates.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int LINEAR = 2 * SUB_BUCKETS;
+    // the linear buckets, then 32 sub-buckets for every exponent from 6 to 62
+    private static final int BUCKETS = LINEAR + (63 - (SUB_BITS + 1)) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * Records one value.
+     *
+     * @param value The value; negative values are recorded as 0.
+     */
+    public void record(long value){
+        if(value < 0){
+            value = 0;
+        }
+        counts[bucket(value)]++;
+        count++;
+        sum += value;
+        if(value > max){
+            max = value;
+        }
+    }
+
+    /**
+     * @return The number of recorded values.
+     */
+    public long count(){
+        return count;
+    }
+
+    /**
+     * @return The largest recorded value, exactly, or 0 if nothing was recorded.
+     */
+    public long max(){
+        return max;
+    }
+
+    /**
+     * @return The mean of the recorded values, or 0 if nothing was recorded.
+     */
+    public double mean(){
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentile The percentile, from 0 to 100.
+     * @return The upper end of the bucket holding the value at the percentile, capped at the largest
+     *         recorded value; 0 if nothing was recorded.
+     */
+    public long percentile(double percentile){
+        if(count == 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for(int b = 0; b < BUCKETS; b++){
+            seen += counts[b];
+            if(seen >= rank){
+                return Math.min(upperBound(b), max);
+            }
+        }
+        return max;
+    }
+
+    /** Forgets every recorded value. */
+    public void reset(){
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+
+    static int bucket(long value){
+        if(value < LINEAR){
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return LINEAR + (exponent - (SUB_BITS + 1)) * SUB_BUCKETS + sub;
+    }
+
+    // largest value that falls in a bucket
+    static long upperBound(int bucket){
+        if(bucket < LINEAR){
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB_BUCKETS + SUB_BITS + 1;
+        long sub = (bucket - LINEAR) % SUB_BUCKETS;
+        long lower = (1L << exponent) + (sub << (exponent - SUB_BITS));
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
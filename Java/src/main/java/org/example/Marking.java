@@ -0,0 +1,146 @@
+package org.example;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Array based randomized Marking paging engine, after Fiat et al.
+ *
+ * Every requested page is marked. On a fault with every cached page marked a new phase starts and
+ * all marks are cleared; the page evicted is drawn uniformly from the unmarked pages. The slots are
+ * kept in one array partitioned into an unmarked prefix and a marked suffix, so marking a page is a
+ * swap, clearing all marks resets the boundary, and drawing the victim is a single random index.
+ */
+public final class Marking implements PagingPolicy {
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final RandomGenerator random;
+
+    // slots[0, unmarked) are unmarked, the rest marked; position is the inverse permutation
+    private final int[] order;
+    private final int[] position;
+    private int unmarked;
+
+    private int used;
+    private int phases;
+    private int pageFaults;
+
+    /**
+     * Creates an empty Marking cache.
+     *
+     * @param k      The cache size.
+     * @param random The generator the evicted pages are drawn from.
+     */
+    public Marking(int k, RandomGenerator random){
+        this(k, PageIndex.hashed(k), random);
+    }
+
+    Marking(int k, PageIndex slots, RandomGenerator random){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.random = random;
+        this.order = new int[k];
+        this.position = new int[k];
+    }
+
+    /**
+     * Serves one page request; Marking ignores the prediction.
+     *
+     * @param page       The requested page.
+     * @param prediction Ignored.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        int slot = slots.get(page);
+
+        if(slot != PageIndex.ABSENT){
+            mark(slot);
+            return false;
+        }
+
+        pageFaults++;
+
+        if(used < k){
+            // a new slot joins the marked suffix
+            slot = used++;
+            order[slot] = slot;
+            position[slot] = slot;
+            if(phases == 0){
+                phases = 1;
+            }
+        }else{
+            if(unmarked == 0){
+                // every cached page is marked: a new phase starts
+                unmarked = k;
+                phases++;
+            }
+            slot = order[random.nextInt(unmarked)];
+            slots.remove(slotPage[slot]);
+            mark(slot);
+        }
+
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        return true;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+        }
+        unmarked = 0;
+        used = 0;
+        phases = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * @return The number of phases started so far.
+     */
+    public int phases(){
+        return phases;
+    }
+
+    /**
+     * Simulates a Marking cache over a whole sequence.
+     *
+     * @param k      The cache size.
+     * @param seq    The page request sequence.
+     * @param random The generator the evicted pages are drawn from.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq, RandomGenerator random){
+        return PagingPolicy.pageFaults(new Marking(k, PageIndex.forPages(seq, k), random), seq, null);
+    }
+
+    // moves an unmarked slot to the marked suffix
+    private void mark(int slot){
+        int at = position[slot];
+        if(at >= unmarked){
+            return;
+        }
+        int last = order[--unmarked];
+        order[at] = last;
+        position[last] = at;
+        order[unmarked] = slot;
+        position[slot] = unmarked;
+    }
+}
@@ -0,0 +1,207 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Combines several paging engines ("experts") with multiplicative weights, generalising the single
+ * LRU / BlindOracle switch of {@link CombinedAlg}.
+ *
+ * Every expert runs as a shadow cache on every request and the real cache follows one of them, so
+ * it faults when that expert faults. The weight of an expert is (1 - η)^faults. After each request
+ * the followed expert is kept with probability new weight / old weight, and otherwise a new one is
+ * drawn in proportion to the weights (the shrinking dartboard of Geulen, Vöcking and Winkler). The
+ * expert followed is then distributed by the weights at every step while switching only as often as
+ * the followed expert loses weight. A switch charges k faults, as in CombinedAlg.
+ *
+ * Weights are rescaled relative to the best expert when they get small, so the best ones never
+ * underflow on long traces.
+ */
+public final class MultiplicativeWeights implements PagingPolicy {
+
+    /** The learning rate of the engines a sweep creates through {@link PolicyType}. */
+    public static final double DEFAULT_LEARNING_RATE = 0.1;
+
+    private static final double RESCALE_BELOW = 1e-100;
+
+    private final int k;
+    private final PagingPolicy[] experts;
+    private final double eta;
+    private final RandomGenerator random;
+
+    private final int[] expertFaults;
+    private final double[] weights;
+
+    private int following;
+    private int switches;
+    private int pageFaults;
+
+    /**
+     * Creates a combiner over Blind Oracle, LRU, LFU and ARC.
+     *
+     * @param k      The cache size.
+     * @param eta    The learning rate, in (0, 1): each fault multiplies the weight of an expert by 1 - eta.
+     * @param random The generator of the switches.
+     */
+    public MultiplicativeWeights(int k, double eta, RandomGenerator random){
+        this(k, eta, random, PageIndex.hashed(2 * k));
+    }
+
+    MultiplicativeWeights(int k, double eta, RandomGenerator random, PageIndex pages){
+        this(k, eta, random, new BlindOracle(k, pages), new LRU(k, pages.emptyCopy(k)), new LFU(k, pages.emptyCopy(k)),
+                new ARC(k, pages.emptyCopy(2 * k)));
+    }
+
+    /**
+     * Creates a combiner over any experts. They should be empty and of the same cache size.
+     *
+     * @param k       The cache size, charged for every switch.
+     * @param eta     The learning rate, in (0, 1): each fault multiplies the weight of an expert by 1 - eta.
+     * @param random  The generator of the switches.
+     * @param experts The experts; the real cache starts by following the first.
+     */
+    public MultiplicativeWeights(int k, double eta, RandomGenerator random, PagingPolicy... experts){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        if(!(eta > 0 && eta < 1)){
+            throw new IllegalArgumentException("Learning rate must be in (0, 1), got " + eta);
+        }
+        if(experts.length == 0){
+            throw new IllegalArgumentException("At least one expert is needed");
+        }
+        this.k = k;
+        this.eta = eta;
+        this.random = random;
+        this.experts = experts.clone();
+        this.expertFaults = new int[experts.length];
+        this.weights = new double[experts.length];
+        Arrays.fill(weights, 1);
+    }
+
+    /**
+     * Serves one page request in every expert.
+     *
+     * @param page       The requested page.
+     * @param prediction The predicted next arrival of the page, passed to every expert.
+     * @return true if the real cache faulted on this request (switch costs are not included).
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+        boolean fault = false;
+        boolean anyFault = false;
+        for(int j = 0; j < experts.length; j++){
+            if(experts[j].onRequest(page, prediction)){
+                expertFaults[j]++;
+                weights[j] *= 1 - eta;
+                anyFault = true;
+                if(j == following){
+                    fault = true;
+                }
+            }
+        }
+        if(anyFault){
+            rescale();
+        }
+        if(fault){
+            pageFaults++;
+            // the followed expert keeps its place with probability new weight / old weight = 1 - eta
+            if(random.nextDouble() < eta){
+                int next = draw();
+                if(next != following){
+                    following = next;
+                    switches++;
+                    pageFaults += k;
+                }
+            }
+        }
+        return fault;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    // the real cache holds what the followed expert holds
+    @Override
+    public int cached(){
+        return experts[following].cached();
+    }
+
+    @Override
+    public void reset(){
+        for(PagingPolicy expert : experts){
+            expert.reset();
+        }
+        Arrays.fill(expertFaults, 0);
+        Arrays.fill(weights, 1);
+        following = 0;
+        switches = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * @return The index of the expert the real cache follows.
+     */
+    public int following(){
+        return following;
+    }
+
+    /**
+     * @return The number of switches between experts so far.
+     */
+    public int switches(){
+        return switches;
+    }
+
+    /**
+     * @param expert The index of an expert.
+     * @return The page faults of the expert's shadow cache.
+     */
+    public int expertFaults(int expert){
+        return expertFaults[expert];
+    }
+
+    /**
+     * Simulates the combiner over Blind Oracle, LRU, LFU and ARC over a whole sequence.
+     *
+     * @param k      The cache size.
+     * @param seq    The page request sequence.
+     * @param hSeq   The predicted next arrival of each request.
+     * @param eta    The learning rate.
+     * @param random The generator of the switches.
+     * @return The number of page faults, switches included.
+     */
+    public static int pageFaults(int k, int[] seq, int[] hSeq, double eta, RandomGenerator random){
+        return PagingPolicy.pageFaults(new MultiplicativeWeights(k, eta, random, PageIndex.forPages(seq, 2 * k)), seq, hSeq);
+    }
+
+    // divides the weights by the largest one once it gets small, so they stay relative to the best expert
+    private void rescale(){
+        double max = 0;
+        for(double weight : weights){
+            max = Math.max(max, weight);
+        }
+        if(max < RESCALE_BELOW){
+            for(int j = 0; j < weights.length; j++){
+                weights[j] /= max;
+            }
+        }
+    }
+
+    private int draw(){
+        double total = 0;
+        for(double weight : weights){
+            total += weight;
+        }
+        double dart = random.nextDouble() * total;
+        for(int j = 0; j < weights.length; j++){
+            dart -= weights[j];
+            if(dart < 0){
+                return j;
+            }
+        }
+        return weights.length - 1;
+    }
+}
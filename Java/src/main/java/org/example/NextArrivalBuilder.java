@@ -0,0 +1,178 @@
+package org.example;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Out-of-core builder of the next-arrival column of a {@link TraceFile}, for traces whose pages,
+ * h-sequence or last-seen table do not fit in memory.
+ *
+ * The trace is cut into chunks of a fixed number of requests. A first forward pass records where
+ * each chunk starts in the page column; the chunks are then processed from the last to the first,
+ * each one decoded into a small buffer and walked backwards exactly like
+ * {@link Combined#generateH(int[])}, with the last index of every page kept in a bounded
+ * {@link OffHeapPageTable}. The next arrivals of a chunk are written straight into its mapped region
+ * of the sidecar file.
+ *
+ * When the trace has more distinct pages than the table holds, the pages are split by hash into
+ * partitions and every partition is one backward pass that only fills in the requests of its own
+ * pages. There is a single partition until a pass overflows the table; then the partition being
+ * processed and all the later ones are split in two and the pass is redone.
+ */
+public final class NextArrivalBuilder {
+
+    private static final int MAX_PARTITIONS = 1 << 16;
+
+    private final long tableBytes;
+    private final int chunkRequests;
+    private int partitions;
+    private int passes;
+
+    /**
+     * @param tableBytes    The off-heap memory of the last-seen table.
+     * @param chunkRequests The number of requests decoded into memory at a time.
+     */
+    public NextArrivalBuilder(long tableBytes, int chunkRequests){
+        if(chunkRequests < 1){
+            throw new IllegalArgumentException("Chunks must hold at least one request, got " + chunkRequests);
+        }
+        this.tableBytes = tableBytes;
+        this.chunkRequests = chunkRequests;
+    }
+
+    /**
+     * Creates a builder with a 256 MB table, room for 16 million distinct pages per pass.
+     */
+    public NextArrivalBuilder(){
+        this(256L << 20, 1 << 20);
+    }
+
+    /**
+     * Writes the next-arrival sidecar of a trace, {@link TraceFile#sidecar(Path)}.
+     *
+     * @param trace The trace.
+     * @return The trace with the next arrivals of the sidecar.
+     * @throws IOException If the trace cannot be read or the sidecar cannot be written.
+     */
+    public TraceFile build(TraceFile trace) throws IOException{
+        return build(trace, TraceFile.sidecar(trace.path()));
+    }
+
+    /**
+     * Writes the next arrivals of a trace to a sidecar file.
+     *
+     * @param trace   The trace.
+     * @param sidecar The sidecar file, replaced if it exists.
+     * @return The trace with the next arrivals of the sidecar.
+     * @throws IOException If the trace cannot be read or the sidecar cannot be written.
+     */
+    public TraceFile build(TraceFile trace, Path sidecar) throws IOException{
+        long n = trace.length();
+        if(n >= Integer.MAX_VALUE){
+            throw new IllegalArgumentException("Next arrivals are ints; the trace has " + n + " requests");
+        }
+
+        // where every chunk starts in the page column, and the page before it
+        int chunks = (int) ((n + chunkRequests - 1) / chunkRequests);
+        long[] offsets = new long[chunks];
+        int[] previous = new int[chunks];
+        try(TraceFile.Cursor cursor = trace.cursor()){
+            int page = 0;
+            for(long i = 0; i < n; i++){
+                if(i % chunkRequests == 0){
+                    offsets[(int) (i / chunkRequests)] = cursor.pageOffset();
+                    previous[(int) (i / chunkRequests)] = page;
+                }
+                page = cursor.nextPage();
+            }
+        }
+
+        OffHeapPageTable lastSeen = new OffHeapPageTable(tableBytes);
+        partitions = 1;
+        passes = 0;
+
+        try(FileChannel out = FileChannel.open(sidecar, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            MappedByteBuffer header = out.map(FileChannel.MapMode.READ_WRITE, 0, TraceFile.SIDECAR_HEADER_BYTES);
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, TraceFile.SIDECAR_MAGIC);
+            header.putInt(4, TraceFile.VERSION);
+            header.putLong(8, n);
+
+            int[] pages = new int[(int) Math.min(chunkRequests, n)];
+            int partition = 0;
+            while(partition < partitions){
+                passes++;
+                lastSeen.clear();
+                if(backwardPass(trace, out, offsets, previous, pages, lastSeen, partition)){
+                    partition++;
+                }else if(partitions == MAX_PARTITIONS){
+                    throw new IllegalStateException("The last-seen table of " + tableBytes + " bytes is too small for this trace");
+                }else{
+                    // partition p splits into 2p and 2p + 1, so the finished ones stay finished
+                    partitions <<= 1;
+                    partition <<= 1;
+                }
+            }
+        }
+        return trace.withNextArrivals(sidecar);
+    }
+
+    /**
+     * @return The number of partitions of the last build.
+     */
+    public int partitions(){
+        return partitions;
+    }
+
+    /**
+     * @return The number of backward passes of the last build, including passes that overflowed.
+     */
+    public int passes(){
+        return passes;
+    }
+
+    // fills in the next arrivals of the requests of one partition; false if the table overflowed
+    private boolean backwardPass(TraceFile trace, FileChannel out, long[] offsets, int[] previous, int[] pages,
+                                 OffHeapPageTable lastSeen, int partition) throws IOException{
+        long n = trace.length();
+        int bits = Integer.numberOfTrailingZeros(partitions);
+
+        for(int c = offsets.length - 1; c >= 0; c--){
+            long start = (long) c * chunkRequests;
+            int size = (int) Math.min(chunkRequests, n - start);
+
+            try(TraceFile.Cursor cursor = trace.cursor(TraceFile.DEFAULT_WINDOW, start, offsets[c], previous[c])){
+                for(int j = 0; j < size; j++){
+                    pages[j] = cursor.nextPage();
+                }
+            }
+
+            MappedByteBuffer h = out.map(FileChannel.MapMode.READ_WRITE, TraceFile.SIDECAR_HEADER_BYTES + 4 * start, 4L * size);
+            h.order(ByteOrder.LITTLE_ENDIAN);
+            for(int j = size - 1; j >= 0; j--){
+                int page = pages[j];
+                if(bits > 0 && partition(page, bits) != partition){
+                    continue;
+                }
+                int i = (int) (start + j);
+                int next = lastSeen.get(page);
+                h.putInt(4 * j, (next == OffHeapPageTable.ABSENT) ? (int) n + 1 : next + 1);
+                if(!lastSeen.put(page, i)){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // top bits of a hash independent of the table's probe sequence, so a partition's first `bits - 1`
+    // bits are those of the partition it was split from
+    private static int partition(int page, int bits){
+        return (page * 0x85EBCA6B) >>> (32 - bits);
+    }
+}
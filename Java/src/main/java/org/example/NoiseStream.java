@@ -0,0 +1,97 @@
+package org.example;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Streaming noise stage: produces the noisy prediction of each request of an h-sequence as the
+ * simulator asks for it, so the predicted sequence never has to be stored.
+ *
+ * With probability τ the prediction of request i is replaced by a value drawn uniformly from
+ * [l, l + w] where l = max(i + 1, h(i) - ⌊w/2⌋); otherwise it is the true h(i). Every random number
+ * comes from the generator passed in, normally the {@link java.util.SplittableRandom} of the trial,
+ * so there is no shared generator to contend on and the same generator state always gives the same
+ * predictions.
+ */
+public final class NoiseStream {
+
+    private final int[] hSequence;
+    private final double tau;
+    private final int w;
+    private final RandomGenerator random;
+
+    private int position;
+
+    /**
+     * @param hSequence The h-sequence to add noise to.
+     * @param tau       The probability of replacing a prediction with a noisy one.
+     * @param w         The width of the noise window.
+     * @param random    The random generator of the trial.
+     */
+    public NoiseStream(int[] hSequence, double tau, int w, RandomGenerator random){
+        if(w < 0){
+            throw new IllegalArgumentException("Noise window must not be negative, got " + w);
+        }
+        this.hSequence = hSequence;
+        this.tau = tau;
+        this.w = w;
+        this.random = random;
+    }
+
+    /**
+     * @return true if there are predictions left.
+     */
+    public boolean hasNext(){
+        return position < hSequence.length;
+    }
+
+    /**
+     * @return The noisy prediction of the next request.
+     */
+    public int next(){
+        int i = position++;
+        return predict(i, hSequence[i], tau, w, random);
+    }
+
+    /**
+     * @return The index of the next request.
+     */
+    public int position(){
+        return position;
+    }
+
+    /**
+     * Draws the noisy prediction of a single request.
+     *
+     * @param i      The index of the request.
+     * @param h      The true next arrival of the request.
+     * @param tau    The probability of replacing the prediction with a noisy one.
+     * @param w      The width of the noise window.
+     * @param random The random generator.
+     * @return The prediction.
+     */
+    public static int predict(int i, int h, double tau, int w, RandomGenerator random){
+        if(random.nextDouble() <= tau){
+            int lowerBound = Math.max(i + 1, h - Math.floorDiv(w, 2));
+            return lowerBound + random.nextInt(w + 1);
+        }
+        return h;
+    }
+
+    /**
+     * Writes the noisy prediction of every request into an array.
+     *
+     * @param hSequence The h-sequence to add noise to.
+     * @param tau       The probability of replacing a prediction with a noisy one.
+     * @param w         The width of the noise window.
+     * @param random    The random generator.
+     * @param predicted The array receiving the predictions, at least as long as the h-sequence.
+     * @return The predicted array.
+     */
+    public static int[] fill(int[] hSequence, double tau, int w, RandomGenerator random, int[] predicted){
+        NoiseStream noise = new NoiseStream(hSequence, tau, w, random);
+        while(noise.hasNext()){
+            predicted[noise.position()] = noise.next();
+        }
+        return predicted;
+    }
+}
@@ -0,0 +1,195 @@
+package org.example;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * A long → int hash table stored outside the Java heap, for page universes too large or too sparse
+ * for {@link PageIndex}'s on-heap tables.
+ *
+ * Open addressing with linear probing over one memory segment of 16 byte slots, the 64-bit key
+ * followed by the int value. The table doubles when half full and deletes by backward shift, like
+ * the hashed {@link PageIndex}. Segments come from an automatic arena, so a table needs no closing:
+ * its memory is released once the table is unreachable. A table with millions of entries is then a
+ * handful of heap objects and never scanned by the garbage collector.
+ *
+ * A table grows up to 2^32 slots of 64 GB, which hold 2^31 entries at half load: one for every page
+ * an int value can number. Past that, {@link #put} of a new key throws.
+ *
+ * The foreign memory API is a preview API in Java 21, so this class only loads on a JVM started with
+ * {@code --enable-preview}.
+ */
+final class OffHeapLongTable {
+
+    /** Value returned by {@link #get} for a key that is not in the table. */
+    static final int ABSENT = -1;
+
+    private static final long SLOT = 16;
+    private static final long VALUE = 8;
+    // 2^32 slots of 16 bytes, 64 GB; beyond that a table stops growing
+    static final long MAX_SLOTS = 1L << 32;
+
+    private final Arena arena = Arena.ofAuto();
+    private final long maxSlots;
+    private MemorySegment slots;
+    private long mask;
+    private long size;
+
+    /**
+     * @param expected The expected number of live entries. The table grows if needed.
+     */
+    OffHeapLongTable(long expected){
+        this(expected, MAX_SLOTS);
+    }
+
+    /**
+     * @param expected The expected number of live entries. The table grows if needed.
+     * @param maxSlots The number of slots the table stops growing at, a power of two of at least 16.
+     */
+    OffHeapLongTable(long expected, long maxSlots){
+        if(maxSlots < 16 || Long.bitCount(maxSlots) != 1){
+            throw new IllegalArgumentException("Slot limit must be a power of two of at least 16, got " + maxSlots);
+        }
+        this.maxSlots = maxSlots;
+        long capacity = 16;
+        while(capacity < 2 * Math.max(expected, 1) && capacity < maxSlots){
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * @return The number of entries.
+     */
+    long size(){
+        return size;
+    }
+
+    /**
+     * @return The number of slots, twice the entries the table holds before it grows.
+     */
+    long slots(){
+        return mask + 1;
+    }
+
+    /**
+     * @param key The key.
+     * @return The value stored for the key, or {@link #ABSENT}.
+     */
+    int get(long key){
+        long i = mix(key) & mask;
+        int value;
+        while((value = valueAt(i)) != ABSENT){
+            if(keyAt(i) == key){
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores a value for a key, replacing any previous value.
+     *
+     * @param key   The key.
+     * @param value The value to store; must not be {@link #ABSENT}.
+     */
+    void put(long key, int value){
+        long i = mix(key) & mask;
+        while(valueAt(i) != ABSENT){
+            if(keyAt(i) == key){
+                slots.set(ValueLayout.JAVA_INT, i * SLOT + VALUE, value);
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        // never past half load, where probe chains would get long
+        if(size == maxSlots >>> 1){
+            throw new IllegalStateException("Off-heap table full at " + size + " entries");
+        }
+        slots.set(ValueLayout.JAVA_LONG, i * SLOT, key);
+        slots.set(ValueLayout.JAVA_INT, i * SLOT + VALUE, value);
+        if(++size > (mask + 1) >>> 1 && mask + 1 < maxSlots){
+            rehash((mask + 1) << 1);
+        }
+    }
+
+    /**
+     * Removes a key from the table, if present.
+     *
+     * @param key The key.
+     */
+    void remove(long key){
+        long i = mix(key) & mask;
+        while(valueAt(i) != ABSENT){
+            if(keyAt(i) == key){
+                deleteAt(i);
+                size--;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /** Removes every entry. */
+    void clear(){
+        // all ones bytes make every value ABSENT
+        slots.fill((byte) -1);
+        size = 0;
+    }
+
+    // backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteAt(long hole){
+        long i = hole;
+        while(true){
+            i = (i + 1) & mask;
+            if(valueAt(i) == ABSENT){
+                break;
+            }
+            long home = mix(keyAt(i)) & mask;
+            // move the entry into the hole if its home slot is not in (hole, i]
+            if(((i - home) & mask) >= ((i - hole) & mask)){
+                MemorySegment.copy(slots, i * SLOT, slots, hole * SLOT, SLOT);
+                hole = i;
+            }
+        }
+        slots.set(ValueLayout.JAVA_INT, hole * SLOT + VALUE, ABSENT);
+    }
+
+    private void rehash(long capacity){
+        MemorySegment old = slots;
+        long oldSlots = mask + 1;
+        allocate(capacity);
+        for(long i = 0; i < oldSlots; i++){
+            int value = old.get(ValueLayout.JAVA_INT, i * SLOT + VALUE);
+            if(value != ABSENT){
+                long key = old.get(ValueLayout.JAVA_LONG, i * SLOT);
+                long j = mix(key) & mask;
+                while(valueAt(j) != ABSENT){
+                    j = (j + 1) & mask;
+                }
+                MemorySegment.copy(old, i * SLOT, slots, j * SLOT, SLOT);
+            }
+        }
+    }
+
+    private void allocate(long capacity){
+        slots = arena.allocate(capacity * SLOT, SLOT);
+        mask = capacity - 1;
+        slots.fill((byte) -1);
+    }
+
+    private long keyAt(long i){
+        return slots.get(ValueLayout.JAVA_LONG, i * SLOT);
+    }
+
+    private int valueAt(long i){
+        return slots.get(ValueLayout.JAVA_INT, i * SLOT + VALUE);
+    }
+
+    static long mix(long key){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+}
@@ -0,0 +1,94 @@
+package org.example;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A bounded page → int table stored outside the Java heap.
+ *
+ * An open-addressing hash table with linear probing in a direct buffer of (page, value) int pairs.
+ * Its memory is fixed when it is created: instead of growing, {@link #put} reports that the table is
+ * full once half of its slots are used, so a caller working under a memory budget can fall back to
+ * processing the pages in several partitions.
+ */
+final class OffHeapPageTable {
+
+    /** Value returned by {@link #get} for a page that is not in the table. */
+    static final int ABSENT = -1;
+
+    private final ByteBuffer slots;
+    private final int mask;
+    private final int capacity;
+    private int size;
+
+    /**
+     * @param bytes The memory of the table; at least 16 bytes are used.
+     */
+    OffHeapPageTable(long bytes){
+        long slotCount = Long.highestOneBit(Math.max(2, Math.min(bytes / 8, 1L << 27)));
+        this.slots = ByteBuffer.allocateDirect((int) slotCount * 8).order(ByteOrder.nativeOrder());
+        this.mask = (int) slotCount - 1;
+        this.capacity = (int) (slotCount >>> 1);
+        clear();
+    }
+
+    /**
+     * @return The number of pages the table holds before {@link #put} fails.
+     */
+    int capacity(){
+        return capacity;
+    }
+
+    int size(){
+        return size;
+    }
+
+    /**
+     * @param page The page id.
+     * @return The value stored for the page, or {@link #ABSENT}.
+     */
+    int get(int page){
+        int i = PageIndex.mix(page) & mask;
+        int value;
+        while((value = slots.getInt(i * 8 + 4)) != ABSENT){
+            if(slots.getInt(i * 8) == page){
+                return value;
+            }
+            i = (i + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores a value for a page, replacing any previous value.
+     *
+     * @param page  The page id.
+     * @param value The value to store; must not be {@link #ABSENT}.
+     * @return false if the page is new and the table is full; nothing is stored then.
+     */
+    boolean put(int page, int value){
+        int i = PageIndex.mix(page) & mask;
+        while(slots.getInt(i * 8 + 4) != ABSENT){
+            if(slots.getInt(i * 8) == page){
+                slots.putInt(i * 8 + 4, value);
+                return true;
+            }
+            i = (i + 1) & mask;
+        }
+        if(size == capacity){
+            return false;
+        }
+        slots.putInt(i * 8, page);
+        slots.putInt(i * 8 + 4, value);
+        size++;
+        return true;
+    }
+
+    /** Removes every entry. */
+    void clear(){
+        for(int i = 0; i <= mask; i++){
+            slots.putInt(i * 8 + 4, ABSENT);
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,140 @@
+package org.example;
+
+/**
+ * Push based simulator for request streams whose predictions arrive with the requests, e.g. from a
+ * model that is queried as each request comes in.
+ *
+ * Requests are fed one at a time or in batches and every engine serves them at once. The first
+ * engine is the real cache: {@link #request} returns whether it faulted, so the simulator can sit
+ * in front of a real cache. The other engines are shadows evaluated on the same stream. The running
+ * fault counts can be read at any time; memory is that of the engines, which is O(k) and does not
+ * grow with the stream.
+ *
+ * Predictions are request positions like those of the h-sequence: the prediction for the request
+ * at position t (starting at 0) is the position, plus one, of its next request. A model with a
+ * bounded lookahead L cannot see further than t + L, so with a lookahead every prediction is clamped
+ * to [t + 1, t + L + 1], the latter meaning "not within the lookahead". Positions are ints, so one
+ * simulator serves up to 2^31 - 1 requests; {@link #reset} starts a new stream.
+ *
+ * A simulator is not thread safe: one thread feeds the requests, and other threads reading the
+ * counts may see them a few requests late.
+ */
+public final class OnlineSimulator {
+
+    private final PagingPolicy[] engines;
+    private final int lookahead;
+    private int position;
+
+    /**
+     * @param lookahead The lookahead of the predictions, or 0 to use them unclamped.
+     * @param engines   The engines; the first one is the real cache.
+     */
+    public OnlineSimulator(int lookahead, PagingPolicy... engines){
+        if(engines.length == 0){
+            throw new IllegalArgumentException("At least one engine is needed");
+        }
+        if(lookahead < 0){
+            throw new IllegalArgumentException("Lookahead must not be negative, got " + lookahead);
+        }
+        this.engines = engines.clone();
+        this.lookahead = lookahead;
+    }
+
+    /**
+     * Creates a simulator whose real cache is the combined algorithm, with Blind Oracle and LRU as
+     * shadows.
+     *
+     * @param k         The cache size.
+     * @param threshold The threshold for the Combined algorithm.
+     * @param lookahead The lookahead of the predictions, or 0 to use them unclamped.
+     * @return The simulator.
+     */
+    public static OnlineSimulator combined(int k, double threshold, int lookahead){
+        return new OnlineSimulator(lookahead, new CombinedAlg(k, threshold), new BlindOracle(k), new LRU(k));
+    }
+
+    /**
+     * Serves one request in every engine.
+     *
+     * @param page       The requested page.
+     * @param prediction The predicted position of the next request of the page.
+     * @return true if the real cache faulted.
+     */
+    public boolean request(int page, int prediction){
+        if(position == Integer.MAX_VALUE){
+            throw new IllegalStateException("Positions are ints; reset the simulator to start a new stream");
+        }
+        int t = position++;
+        if(lookahead > 0){
+            prediction = (int) Math.max(t + 1L, Math.min(prediction, t + 1L + lookahead));
+        }
+        boolean fault = engines[0].onRequest(page, prediction);
+        for(int j = 1; j < engines.length; j++){
+            engines[j].onRequest(page, prediction);
+        }
+        return fault;
+    }
+
+    /**
+     * Serves a batch of requests.
+     *
+     * @param pages       The requested pages.
+     * @param predictions The prediction of each request.
+     * @param from        The index of the first request of the batch.
+     * @param to          The index after the last request of the batch.
+     * @return The number of faults of the real cache in the batch.
+     */
+    public int request(int[] pages, int[] predictions, int from, int to){
+        int faults = 0;
+        for(int i = from; i < to; i++){
+            if(request(pages[i], predictions[i])){
+                faults++;
+            }
+        }
+        return faults;
+    }
+
+    /**
+     * @return The number of requests served.
+     */
+    public int requests(){
+        return position;
+    }
+
+    /**
+     * @param engine The index of the engine, 0 for the real cache.
+     * @return The page faults of the engine so far.
+     */
+    public int pageFaults(int engine){
+        return engines[engine].pageFaults();
+    }
+
+    /**
+     * @return The page faults of every engine so far, the real cache first.
+     */
+    public int[] pageFaults(){
+        int[] pageFaults = new int[engines.length];
+        for(int j = 0; j < engines.length; j++){
+            pageFaults[j] = engines[j].pageFaults();
+        }
+        return pageFaults;
+    }
+
+    /**
+     * @param engine The index of the engine, 0 for the real cache.
+     * @return The page faults of the engine per request so far, 0 before the first request.
+     */
+    public double faultRate(int engine){
+        return position == 0 ? 0 : (double) engines[engine].pageFaults() / position;
+    }
+
+    /**
+     * Empties every engine and starts a new stream at position 0.
+     */
+    public void reset(){
+        for(PagingPolicy engine : engines){
+            engine.reset();
+        }
+        position = 0;
+    }
+}
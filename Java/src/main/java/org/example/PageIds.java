@@ -0,0 +1,58 @@
+package org.example;
+
+/**
+ * Maps sparse 64-bit page ids, e.g. block addresses or object ids from a production trace, to the
+ * dense int pages the engines and {@link TraceFile} work with. Pages are numbered 0, 1, 2, ... in the
+ * order their ids are first seen, so a trace over a universe of billions of ids becomes a trace whose
+ * page range is its number of distinct pages.
+ *
+ * The ids are held in an {@link OffHeapLongTable}, so interning hundreds of millions of ids does not
+ * grow the Java heap. The table takes up to 2^31 distinct ids, every page an int can number. Like
+ * that table, it needs {@code --enable-preview} on Java 21.
+ */
+public final class PageIds {
+
+    /** Value returned by {@link #get} for an id that was never interned. */
+    public static final int ABSENT = OffHeapLongTable.ABSENT;
+
+    private final OffHeapLongTable ids;
+    private int size;
+
+    /**
+     * @param expected The expected number of distinct ids. The table grows if needed.
+     */
+    public PageIds(long expected){
+        this.ids = new OffHeapLongTable(expected);
+    }
+
+    /**
+     * @param id The 64-bit page id.
+     * @return The dense page of the id, numbering it if it is new.
+     */
+    public int intern(long id){
+        int page = ids.get(id);
+        if(page == ABSENT){
+            if(size == Integer.MAX_VALUE){
+                throw new IllegalStateException("More than " + Integer.MAX_VALUE + " distinct page ids");
+            }
+            page = size++;
+            ids.put(id, page);
+        }
+        return page;
+    }
+
+    /**
+     * @param id The 64-bit page id.
+     * @return The dense page of the id, or {@link #ABSENT} if it was never interned.
+     */
+    public int get(long id){
+        return ids.get(id);
+    }
+
+    /**
+     * @return The number of distinct ids interned so far.
+     */
+    public int size(){
+        return size;
+    }
+}
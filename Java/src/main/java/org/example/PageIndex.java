@@ -0,0 +1,310 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A primitive page → int table used by the array based engines.
+ *
+ * When the pages of a trace fall in a small range the table is a plain {@code int[]} indexed by
+ * {@code page - base}; otherwise it falls back to an open-addressing hash table with linear probing.
+ * Hashed tables for a million or more live entries are kept off the heap in an {@link OffHeapLongTable}
+ * when the JVM allows it (Java 21 needs {@code --enable-preview}), so caches with millions of pages do
+ * not weigh on the garbage collector. No mode boxes or allocates on {@link #get}, {@link #put} or {@link #remove}, so the hot loops
+ * of the simulators stay allocation free.
+ */
+final class PageIndex {
+
+    /** Value returned by {@link #get} for a page that is not in the table. */
+    static final int ABSENT = -1;
+
+    // largest range of page ids that is still stored as a direct array
+    private static final int DENSE_LIMIT = 1 << 24;
+    // smallest expected number of entries of a hashed table that is stored off the heap
+    static final int OFF_HEAP_THRESHOLD = 1 << 20;
+    private static final boolean OFF_HEAP_AVAILABLE = offHeapAvailable();
+
+    // dense mode
+    private final int[] direct;
+    private final int base;
+
+    // hashed mode
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+
+    // off-heap mode
+    private final OffHeapLongTable offHeap;
+
+    private PageIndex(int base, int range){
+        this.base = base;
+        this.direct = new int[range];
+        this.offHeap = null;
+        Arrays.fill(direct, ABSENT);
+    }
+
+    private PageIndex(int expected){
+        this.base = 0;
+        this.direct = null;
+        this.offHeap = null;
+        allocate(tableSizeFor(expected));
+    }
+
+    private PageIndex(OffHeapLongTable offHeap){
+        this.base = 0;
+        this.direct = null;
+        this.offHeap = offHeap;
+    }
+
+    /**
+     * Creates a table for the pages {@code minPage..maxPage}, stored as a direct array.
+     *
+     * @param minPage The smallest page id that will be stored.
+     * @param maxPage The largest page id that will be stored.
+     * @return An empty dense table.
+     */
+    static PageIndex dense(int minPage, int maxPage){
+        long range = (long) maxPage - minPage + 1;
+        if(range <= 0 || range > DENSE_LIMIT){
+            throw new IllegalArgumentException("Page range too large for a dense table: " + range);
+        }
+        return new PageIndex(minPage, (int) range);
+    }
+
+    /**
+     * Creates a hashed table sized for roughly {@code expected} live entries. It grows if needed.
+     *
+     * @param expected The expected number of live entries.
+     * @return An empty hashed table.
+     */
+    static PageIndex hashed(int expected){
+        if(expected >= OFF_HEAP_THRESHOLD && OFF_HEAP_AVAILABLE){
+            return offHeap(expected);
+        }
+        return new PageIndex(expected);
+    }
+
+    /**
+     * Creates a hashed table stored off the heap, whatever its size. It grows if needed.
+     *
+     * @param expected The expected number of live entries.
+     * @return An empty off-heap table.
+     */
+    static PageIndex offHeap(int expected){
+        return new PageIndex(new OffHeapLongTable(expected));
+    }
+
+    /**
+     * @return true if the table is stored off the heap.
+     */
+    boolean isOffHeap(){
+        return offHeap != null;
+    }
+
+    /**
+     * Picks the cheapest table for the pages of a trace: dense when the id range is small compared
+     * to the trace, hashed otherwise.
+     *
+     * @param pages    The page request sequence.
+     * @param expected The expected number of live entries (e.g. the cache size).
+     * @return An empty table able to hold any page of the trace.
+     */
+    static PageIndex forPages(int[] pages, int expected){
+        if(pages.length == 0){
+            return hashed(expected);
+        }
+        int min = pages[0];
+        int max = pages[0];
+        for(int page : pages){
+            if(page < min) min = page;
+            if(page > max) max = page;
+        }
+        return forRange(min, max, pages.length, expected);
+    }
+
+    /**
+     * Picks the cheapest table for a trace whose page range is already known, e.g. from the header
+     * of a trace file.
+     *
+     * @param minPage  The smallest page id of the trace.
+     * @param maxPage  The largest page id of the trace.
+     * @param length   The number of requests of the trace.
+     * @param expected The expected number of live entries (e.g. the cache size).
+     * @return An empty table able to hold any page of the trace.
+     */
+    static PageIndex forRange(int minPage, int maxPage, long length, int expected){
+        long range = (long) maxPage - minPage + 1;
+        if(range > 0 && range <= DENSE_LIMIT && range <= Math.max(1024L, 4L * length)){
+            return new PageIndex(minPage, (int) range);
+        }
+        return hashed(expected);
+    }
+
+    /**
+     * Creates an empty table in the same mode and for the same pages as this one, so several engines
+     * over one trace scan it only once to pick their tables.
+     *
+     * @param expected The expected number of live entries, used in hashed mode.
+     * @return An empty table.
+     */
+    PageIndex emptyCopy(int expected){
+        return direct != null ? new PageIndex(base, direct.length) : hashed(expected);
+    }
+
+    /**
+     * @param page The page id.
+     * @return The value stored for the page, or {@link #ABSENT}.
+     */
+    int get(int page){
+        if(direct != null){
+            int idx = page - base;
+            return (idx >= 0 && idx < direct.length) ? direct[idx] : ABSENT;
+        }
+        if(offHeap != null){
+            return offHeap.get(page);
+        }
+        int i = mix(page) & mask;
+        while(values[i] != ABSENT){
+            if(keys[i] == page){
+                return values[i];
+            }
+            i = (i + 1) & mask;
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Stores a value for a page, replacing any previous value.
+     *
+     * @param page  The page id.
+     * @param value The value to store; must not be {@link #ABSENT}.
+     */
+    void put(int page, int value){
+        if(direct != null){
+            direct[page - base] = value;
+            return;
+        }
+        if(offHeap != null){
+            offHeap.put(page, value);
+            return;
+        }
+        int i = mix(page) & mask;
+        while(values[i] != ABSENT){
+            if(keys[i] == page){
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = page;
+        values[i] = value;
+        if(++size > (mask + 1) >>> 1){
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Removes a page from the table, if present.
+     *
+     * @param page The page id.
+     */
+    void remove(int page){
+        if(direct != null){
+            int idx = page - base;
+            if(idx >= 0 && idx < direct.length){
+                direct[idx] = ABSENT;
+            }
+            return;
+        }
+        if(offHeap != null){
+            offHeap.remove(page);
+            return;
+        }
+        int i = mix(page) & mask;
+        while(values[i] != ABSENT){
+            if(keys[i] == page){
+                deleteAt(i);
+                size--;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+    }
+
+    /** Removes every entry. */
+    void clear(){
+        if(direct != null){
+            Arrays.fill(direct, ABSENT);
+        }else if(offHeap != null){
+            offHeap.clear();
+        }else{
+            Arrays.fill(values, ABSENT);
+            size = 0;
+        }
+    }
+
+    // backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteAt(int hole){
+        int i = hole;
+        while(true){
+            i = (i + 1) & mask;
+            if(values[i] == ABSENT){
+                break;
+            }
+            int home = mix(keys[i]) & mask;
+            // move the entry into the hole if its home slot is not in (hole, i]
+            if(((i - home) & mask) >= ((i - hole) & mask)){
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = ABSENT;
+    }
+
+    private void rehash(int capacity){
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(capacity);
+        for(int i = 0; i < oldKeys.length; i++){
+            if(oldValues[i] != ABSENT){
+                int j = mix(oldKeys[i]) & mask;
+                while(values[j] != ABSENT){
+                    j = (j + 1) & mask;
+                }
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity){
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        mask = capacity - 1;
+    }
+
+    private static int tableSizeFor(int expected){
+        int capacity = 16;
+        while(capacity < 2L * Math.max(expected, 1) && capacity < (1 << 30)){
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    // the foreign memory API of Java 21 is a preview API, which only loads with --enable-preview
+    private static boolean offHeapAvailable(){
+        try{
+            Class.forName("org.example.OffHeapLongTable");
+            return true;
+        }catch(ClassNotFoundException | LinkageError e){
+            return false;
+        }
+    }
+
+    static int mix(int page){
+        int h = page * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
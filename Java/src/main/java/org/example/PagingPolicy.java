@@ -0,0 +1,51 @@
+package org.example;
+
+/**
+ * A paging algorithm simulated one request at a time.
+ *
+ * Every engine keeps its cache in primitive arrays, so {@link #onRequest} never boxes a page or
+ * allocates. Algorithms that do not use predictions ignore the prediction argument, which lets any
+ * set of policies be driven by the same loop over a trace and its (noisy) h-sequence.
+ */
+public interface PagingPolicy {
+
+    /**
+     * Serves one page request.
+     *
+     * @param page       The requested page.
+     * @param prediction The predicted next arrival of the page; ignored by algorithms without predictions.
+     * @return true if the request was a page fault.
+     */
+    boolean onRequest(int page, int prediction);
+
+    /**
+     * @return The number of page faults so far.
+     */
+    int pageFaults();
+
+    /**
+     * @return The number of pages in the cache, at most the cache size. A fault that leaves it
+     *         unchanged evicted a page.
+     */
+    int cached();
+
+    /**
+     * Empties the cache and resets the fault counter.
+     */
+    void reset();
+
+    /**
+     * Runs a policy over a whole sequence.
+     *
+     * @param policy      The policy, normally empty.
+     * @param seq         The page request sequence.
+     * @param predictions The prediction of each request, or null for algorithms without predictions.
+     * @return The page faults of the policy after the sequence.
+     */
+    static int pageFaults(PagingPolicy policy, int[] seq, int[] predictions){
+        for(int i = 0; i < seq.length; i++){
+            policy.onRequest(seq[i], predictions == null ? 0 : predictions[i]);
+        }
+        return policy.pageFaults();
+    }
+}
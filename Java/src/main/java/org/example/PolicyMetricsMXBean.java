@@ -0,0 +1,53 @@
+package org.example;
+
+/**
+ * The JMX view of an {@link InstrumentedPolicy}, registered under
+ * {@code org.example:type=PagingPolicy,name=<name>}.
+ */
+public interface PolicyMetricsMXBean {
+
+    /** @return The class name of the instrumented engine. */
+    String getPolicy();
+
+    /** @return The number of requests served. */
+    long getRequests();
+
+    /** @return The requests found in the cache. */
+    long getHits();
+
+    /** @return The requests that faulted, switch costs excluded. */
+    long getMisses();
+
+    /** @return The faults that evicted a page, as the engine's cache did not grow; switches excluded. */
+    long getEvictions();
+
+    /** @return The page faults reported by the engine, switch costs included. */
+    int getPageFaults();
+
+    /** @return The page faults of the engine per request. */
+    double getFaultRate();
+
+    /** @return The number of switches of a combined engine; 0 for other engines. */
+    long getSwitches();
+
+    /** @return The request index of the most recent switches, oldest first. */
+    int[] getRecentSwitches();
+
+    /** @return The number of requests per window of the fault rate series. */
+    int getWindow();
+
+    /** @return The fault rate of the most recent complete windows, oldest first. */
+    double[] getRecentWindowFaultRates();
+
+    /** @return The median request latency in nanoseconds, or 0 when untimed. */
+    long getLatencyP50Nanos();
+
+    /** @return The 99th percentile request latency in nanoseconds, or 0 when untimed. */
+    long getLatencyP99Nanos();
+
+    /** @return The largest request latency in nanoseconds, or 0 when untimed. */
+    long getLatencyMaxNanos();
+
+    /** @return Every metric as a JSON object. */
+    String toJson();
+}
@@ -0,0 +1,103 @@
+package org.example;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+/**
+ * The paging policies a sweep can compare next to OPT, Blind Oracle, LRU and Combined. Predictive
+ * Marking, Robust Marking, Multiplicative Weights and Lazy Combined use the predictions, as Blind
+ * Oracle and Combined do.
+ */
+public enum PolicyType {
+
+    FIFO("FIFO", false, false),
+    CLOCK("CLOCK", false, false),
+    LFU("LFU", false, false),
+    ARC("ARC", false, false),
+    MARKING("Marking", true, false),
+    PREDICTIVE_MARKING("Predictive Marking", false, true),
+    ROBUST_MARKING("Robust Marking", true, true),
+    MULTIPLICATIVE_WEIGHTS("Multiplicative Weights", true, true),
+    LAZY_COMBINED("Lazy Combined", false, true);
+
+    private final String label;
+    private final boolean randomized;
+    private final boolean predictions;
+
+    PolicyType(String label, boolean randomized, boolean predictions){
+        this.label = label;
+        this.randomized = randomized;
+        this.predictions = predictions;
+    }
+
+    /**
+     * @return The name of the policy in charts.
+     */
+    public String label(){
+        return label;
+    }
+
+    /**
+     * @return The name of the policy in CSV headers and sweep files.
+     */
+    public String column(){
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return true if the policy draws random numbers.
+     */
+    public boolean isRandomized(){
+        return randomized;
+    }
+
+    /**
+     * @return true if the policy uses the predicted next arrivals.
+     */
+    public boolean usesPredictions(){
+        return predictions;
+    }
+
+    /**
+     * Creates an empty engine of this policy.
+     *
+     * @param k         The cache size.
+     * @param threshold The threshold of Combined, also used by Lazy Combined. Multiplicative Weights
+     *                  learns at {@link MultiplicativeWeights#DEFAULT_LEARNING_RATE} instead.
+     * @param random    The generator of randomized policies; unused by the others.
+     * @return The engine.
+     */
+    public PagingPolicy create(int k, double threshold, RandomGenerator random){
+        return create(k, threshold, PageIndex.hashed(this == ARC || this == MULTIPLICATIVE_WEIGHTS ? 2 * k : k), random);
+    }
+
+    PagingPolicy create(int k, double threshold, PageIndex pages, RandomGenerator random){
+        return switch(this){
+            case FIFO -> new FIFO(k, pages);
+            case CLOCK -> new Clock(k, pages);
+            case LFU -> new LFU(k, pages);
+            case ARC -> new ARC(k, pages);
+            case MARKING -> new Marking(k, pages, random);
+            case PREDICTIVE_MARKING -> new PredictiveMarking(k, pages, null, null);
+            case ROBUST_MARKING -> new PredictiveMarking(k, pages, pages.emptyCopy(k), random);
+            case MULTIPLICATIVE_WEIGHTS ->
+                    new MultiplicativeWeights(k, MultiplicativeWeights.DEFAULT_LEARNING_RATE, random, pages);
+            // lazy reconciliation with a dwell time of one cache turnover
+            case LAZY_COMBINED -> new CombinedAlg(k, threshold, pages, pages.emptyCopy(k), pages.emptyCopy(k), k);
+        };
+    }
+
+    /**
+     * @param name The name of a policy, as in {@link #column()} or {@link #label()}, in any case.
+     * @return The policy.
+     */
+    public static PolicyType parse(String name){
+        String trimmed = name.trim();
+        for(PolicyType type : values()){
+            if(type.name().equalsIgnoreCase(trimmed) || type.label().equalsIgnoreCase(trimmed)){
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown paging policy: " + name);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * A set of ints from a bounded universe {@code 0..universe-1}, as a tree of 64-bit words.
+ *
+ * The bottom level has one bit per position and every level above has one bit per non-empty word
+ * below it, so a universe of 2^24 positions is four levels deep. {@link #add}, {@link #remove} and
+ * {@link #max} walk the levels with a shift and a leading-zero count each, about four word
+ * operations for any trace this project simulates, where a heap over k elements needs log k steps
+ * of scattered reads.
+ */
+final class PositionSet {
+
+    // levels[0] holds one bit per position, the last level is a single word
+    private final long[][] levels;
+    private int size;
+
+    /**
+     * @param universe The number of positions; the set holds {@code 0..universe-1}.
+     */
+    PositionSet(int universe){
+        int depth = 1;
+        for(long words = wordsFor(universe); words > 1; words = (words + 63) >>> 6){
+            depth++;
+        }
+        levels = new long[depth][];
+        long bits = Math.max(universe, 1);
+        for(int l = 0; l < depth; l++){
+            levels[l] = new long[(int) wordsFor(bits)];
+            bits = levels[l].length;
+        }
+    }
+
+    int size(){
+        return size;
+    }
+
+    boolean contains(int position){
+        return (levels[0][position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * @param position The position to add.
+     * @return false if the position was already in the set.
+     */
+    boolean add(int position){
+        if(contains(position)){
+            return false;
+        }
+        size++;
+        int at = position;
+        for(long[] level : levels){
+            long word = level[at >>> 6];
+            level[at >>> 6] = word | (1L << at);
+            if(word != 0){
+                // the levels above already know this word is not empty
+                break;
+            }
+            at >>>= 6;
+        }
+        return true;
+    }
+
+    /**
+     * @param position The position to remove.
+     * @return false if the position was not in the set.
+     */
+    boolean remove(int position){
+        if(!contains(position)){
+            return false;
+        }
+        size--;
+        int at = position;
+        for(long[] level : levels){
+            long word = level[at >>> 6] & ~(1L << at);
+            level[at >>> 6] = word;
+            if(word != 0){
+                break;
+            }
+            at >>>= 6;
+        }
+        return true;
+    }
+
+    /**
+     * @return The largest position in the set, or -1 if it is empty.
+     */
+    int max(){
+        int top = levels.length - 1;
+        if(levels[top][0] == 0){
+            return -1;
+        }
+        int at = 63 - Long.numberOfLeadingZeros(levels[top][0]);
+        for(int l = top - 1; l >= 0; l--){
+            at = (at << 6) | (63 - Long.numberOfLeadingZeros(levels[l][at]));
+        }
+        return at;
+    }
+
+    void clear(){
+        for(long[] level : levels){
+            Arrays.fill(level, 0);
+        }
+        size = 0;
+    }
+
+    private static long wordsFor(long bits){
+        return Math.max(1, (bits + 63) >>> 6);
+    }
+}
@@ -0,0 +1,231 @@
+package org.example;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Array based Predictive Marker paging engine, after Lykouris and Vassilvitskii.
+ *
+ * Requests are served in marking phases as by {@link Marking}, but on a fault the victim is the
+ * unmarked page predicted to be requested furthest in the future instead of a random one. Being a
+ * marking algorithm, it is never worse than k-competitive whatever the predictions.
+ *
+ * The robust version also tracks the eviction chains of the phase: a fault on a page that was not
+ * evicted during the phase starts a new chain, and a fault on a page evicted during the phase extends
+ * the chain that evicted it. While a chain is at most H_k evictions long the predictions choose the
+ * victim; beyond that the chain evicts a uniformly random unmarked page, as Marking would. This keeps
+ * the fault count within O(min(1 + sqrt(η / OPT), log k)) of OPT, where η is the prediction error.
+ *
+ * The unmarked slots sit in an {@link IndexedHeap} by prediction for the predicted victims and in an
+ * unmarked prefix of one array, as in Marking, for the random ones.
+ */
+public final class PredictiveMarking implements PagingPolicy {
+
+    private static final int NONE = -1;
+
+    private final int k;
+    private final PageIndex slots;
+    private final int[] slotPage;
+    private final IndexedHeap unmarkedHeap;
+    private final long[] predictionKey;
+
+    // slots[0, unmarked) are unmarked, the rest marked; position is the inverse permutation
+    private final int[] order;
+    private final int[] position;
+    private int unmarked;
+
+    // robust version only: the chain of each page evicted in the phase, and the length of each chain
+    private final RandomGenerator random;
+    private final double harmonic;
+    private final PageIndex evictedChain;
+    private final int[] evictedPages;
+    private int evictions;
+    private final int[] chainLength;
+    private int chains;
+
+    private int used;
+    private int phases;
+    private int pageFaults;
+
+    /**
+     * Creates an empty Predictive Marker cache that always follows the predictions.
+     *
+     * @param k The cache size.
+     */
+    public PredictiveMarking(int k){
+        this(k, PageIndex.hashed(k), null, null);
+    }
+
+    /**
+     * Creates an empty robust Predictive Marker cache.
+     *
+     * @param k      The cache size.
+     * @param random The generator of the random victims of long chains.
+     */
+    public PredictiveMarking(int k, RandomGenerator random){
+        this(k, PageIndex.hashed(k), PageIndex.hashed(k), random);
+    }
+
+    PredictiveMarking(int k, PageIndex slots, PageIndex evictedChain, RandomGenerator random){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        if((evictedChain == null) != (random == null)){
+            throw new IllegalArgumentException("The robust version needs both a chain table and a generator");
+        }
+        this.k = k;
+        this.slots = slots;
+        this.slotPage = new int[k];
+        this.unmarkedHeap = new IndexedHeap(k);
+        this.predictionKey = new long[k];
+        this.order = new int[k];
+        this.position = new int[k];
+        this.random = random;
+        this.evictedChain = evictedChain;
+        double h = 0;
+        for(int i = 1; i <= k; i++){
+            h += 1.0 / i;
+        }
+        this.harmonic = h;
+        this.evictedPages = random == null ? null : new int[k];
+        this.chainLength = random == null ? null : new int[k];
+    }
+
+    /**
+     * Serves one page request.
+     *
+     * @param page       The requested page.
+     * @param prediction The predicted next arrival of the page.
+     * @return true if the request was a page fault.
+     */
+    @Override
+    public boolean onRequest(int page, int prediction){
+
+        int slot = slots.get(page);
+
+        if(slot != PageIndex.ABSENT){
+            mark(slot, prediction);
+            return false;
+        }
+
+        pageFaults++;
+
+        if(used < k){
+            // a new slot joins the marked suffix
+            slot = used++;
+            order[slot] = slot;
+            position[slot] = slot;
+            if(phases == 0){
+                phases = 1;
+            }
+        }else{
+            if(unmarked == 0){
+                startPhase();
+            }
+            int chain = NONE;
+            if(random != null){
+                chain = evictedChain.get(page);
+                if(chain == PageIndex.ABSENT){
+                    chain = chains++;
+                    chainLength[chain] = 0;
+                }
+                chainLength[chain]++;
+            }
+            if(chain == NONE || chainLength[chain] <= harmonic){
+                slot = unmarkedHeap.top();
+            }else{
+                slot = order[random.nextInt(unmarked)];
+            }
+            int victim = slotPage[slot];
+            slots.remove(victim);
+            if(chain != NONE){
+                evictedChain.put(victim, chain);
+                evictedPages[evictions++] = victim;
+            }
+        }
+
+        slotPage[slot] = page;
+        slots.put(page, slot);
+        mark(slot, prediction);
+        return true;
+    }
+
+    @Override
+    public int pageFaults(){
+        return pageFaults;
+    }
+
+    @Override
+    public int cached(){
+        return used;
+    }
+
+    @Override
+    public void reset(){
+        for(int slot = 0; slot < used; slot++){
+            slots.remove(slotPage[slot]);
+        }
+        forgetEvictions();
+        unmarkedHeap.clear();
+        unmarked = 0;
+        used = 0;
+        phases = 0;
+        pageFaults = 0;
+    }
+
+    /**
+     * @return The number of phases started so far.
+     */
+    public int phases(){
+        return phases;
+    }
+
+    /**
+     * Simulates a Predictive Marker cache over a whole sequence.
+     *
+     * @param k      The cache size.
+     * @param seq    The page request sequence.
+     * @param hSeq   The predicted next arrival of each request.
+     * @param random The generator of the robust version, or null to always follow the predictions.
+     * @return The number of page faults.
+     */
+    public static int pageFaults(int k, int[] seq, int[] hSeq, RandomGenerator random){
+        PageIndex pages = PageIndex.forPages(seq, k);
+        PredictiveMarking cache = new PredictiveMarking(k, pages, random == null ? null : pages.emptyCopy(k), random);
+        return PagingPolicy.pageFaults(cache, seq, hSeq);
+    }
+
+    // every cached page is marked: all marks are cleared and so are the chains of the phase
+    private void startPhase(){
+        unmarked = k;
+        for(int i = 0; i < k; i++){
+            unmarkedHeap.set(order[i], predictionKey[order[i]]);
+        }
+        forgetEvictions();
+        phases++;
+    }
+
+    private void forgetEvictions(){
+        if(random != null){
+            for(int i = 0; i < evictions; i++){
+                evictedChain.remove(evictedPages[i]);
+            }
+            evictions = 0;
+            chains = 0;
+        }
+    }
+
+    // moves a slot to the marked suffix, remembering its prediction for the next phase
+    private void mark(int slot, int prediction){
+        unmarkedHeap.remove(slot);
+        predictionKey[slot] = BlindOracle.key(prediction, slotPage[slot]);
+        int at = position[slot];
+        if(at >= unmarked){
+            return;
+        }
+        int last = order[--unmarked];
+        order[at] = last;
+        position[last] = at;
+        order[unmarked] = slot;
+        position[slot] = unmarked;
+    }
+}
@@ -0,0 +1,396 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A columnar store of per-trial results: one {@code double} column per parameter and one {@code int}
+ * column of page faults per algorithm, one row per trial.
+ *
+ * Rows are appended into a chunk of primitive arrays, one array per column. In memory the full
+ * chunks are kept; a spilling store instead appends every full chunk to a file and reuses the arrays,
+ * so a sweep of millions of trials holds a single chunk however long it runs. The file is only ever
+ * appended to: a header with the column names, then one block per chunk holding the row count and
+ * each column contiguously, all big-endian. {@link #open(Path)} reopens a file to read it or to
+ * append more trials.
+ *
+ * Appending is thread-safe.
+ */
+public final class ResultStore implements Closeable {
+
+    /** Rows per chunk unless given otherwise, about 1.5 MB with a few columns. */
+    public static final int DEFAULT_CHUNK_ROWS = 1 << 16;
+
+    private static final int MAGIC = 0x50475253; // "PGRS"
+    private static final int VERSION = 1;
+
+    /**
+     * The rows of one chunk, column by column: {@code parameters[c][r]} and {@code pageFaults[a][r]}
+     * for the rows r below {@code rows}.
+     *
+     * @param rows       The number of rows.
+     * @param parameters The parameter columns.
+     * @param pageFaults The algorithm columns.
+     */
+    public record Chunk(int rows, double[][] parameters, int[][] pageFaults) {
+    }
+
+    private final List<String> parameters;
+    private final List<String> algorithms;
+    private final int chunkRows;
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private double[][] parameterColumns;
+    private int[][] faultColumns;
+    private int rows;
+    private long spilledRows;
+
+    private ResultStore(List<String> parameters, List<String> algorithms, int chunkRows, Path file, FileChannel channel,
+                        long spilledRows){
+        if(chunkRows < 1){
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkRows);
+        }
+        this.parameters = List.copyOf(parameters);
+        this.algorithms = List.copyOf(algorithms);
+        this.chunkRows = chunkRows;
+        this.file = file;
+        this.channel = channel;
+        this.buffer = channel == null ? null
+                : ByteBuffer.allocate(Integer.BYTES + chunkRows * (parameters.size() * Double.BYTES + algorithms.size() * Integer.BYTES));
+        this.spilledRows = spilledRows;
+        newChunk();
+    }
+
+    /**
+     * Creates a store that keeps every row in memory.
+     *
+     * @param parameters The names of the parameter columns.
+     * @param algorithms The names of the algorithm columns.
+     * @return The empty store.
+     */
+    public static ResultStore inMemory(List<String> parameters, List<String> algorithms){
+        return new ResultStore(parameters, algorithms, DEFAULT_CHUNK_ROWS, null, null, 0);
+    }
+
+    /**
+     * Creates a store that spills every full chunk to a new file, replacing any file of that name.
+     *
+     * @param file       The file.
+     * @param parameters The names of the parameter columns.
+     * @param algorithms The names of the algorithm columns.
+     * @param chunkRows  The number of rows held in memory.
+     * @return The empty store.
+     */
+    public static ResultStore spilling(Path file, List<String> parameters, List<String> algorithms, int chunkRows){
+        try{
+            Path parent = file.toAbsolutePath().getParent();
+            if(parent != null){
+                Files.createDirectories(parent);
+            }
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ);
+            try{
+                ByteBuffer header = header(parameters, algorithms);
+                while(header.hasRemaining()){
+                    channel.write(header);
+                }
+            }catch(IOException e){
+                channel.close();
+                throw e;
+            }
+            return new ResultStore(parameters, algorithms, chunkRows, file, channel, 0);
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot create the trial results " + file, e);
+        }
+    }
+
+    /**
+     * Creates a spilling store writing {@code <directory>/<sweep>.trials}.
+     *
+     * @param directory  The output directory, created if missing.
+     * @param name       The name of the sweep.
+     * @param parameters The names of the parameter columns.
+     * @param algorithms The names of the algorithm columns.
+     * @return The empty store.
+     */
+    public static ResultStore forSweep(Path directory, String name, List<String> parameters, List<String> algorithms){
+        return spilling(directory.resolve(SweepRecorder.fileName(name) + ".trials"), parameters, algorithms, DEFAULT_CHUNK_ROWS);
+    }
+
+    /**
+     * Reopens a file written by a spilling store, to read its rows or append more.
+     *
+     * @param file The file.
+     * @return The store, positioned after the last row.
+     */
+    public static ResultStore open(Path file){
+        try{
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.READ);
+            try{
+                ByteBuffer buffer = read(channel, 0, 2 * Integer.BYTES, file);
+                if(buffer.getInt() != MAGIC || buffer.getInt() != VERSION){
+                    throw new IOException("Not a trial result file");
+                }
+                long[] position = {2 * Integer.BYTES};
+                List<String> parameters = readNames(channel, position, file);
+                List<String> algorithms = readNames(channel, position, file);
+                long rowBytes = parameters.size() * (long) Double.BYTES + algorithms.size() * (long) Integer.BYTES;
+                long rows = 0;
+                long at = position[0];
+                while(at < channel.size()){
+                    int blockRows = read(channel, at, Integer.BYTES, file).getInt();
+                    at += Integer.BYTES + blockRows * rowBytes;
+                    rows += blockRows;
+                }
+                if(at != channel.size()){
+                    throw new IOException("Truncated last block");
+                }
+                return new ResultStore(parameters, algorithms, DEFAULT_CHUNK_ROWS, file, channel, rows);
+            }catch(IOException e){
+                channel.close();
+                throw e;
+            }
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot open the trial results " + file, e);
+        }
+    }
+
+    /**
+     * Appends the result of one trial.
+     *
+     * @param parameterValues The value of each parameter column.
+     * @param pageFaults      The page faults of each algorithm column.
+     */
+    public synchronized void append(double[] parameterValues, int[] pageFaults){
+        if(parameterValues.length != parameters.size() || pageFaults.length != algorithms.size()){
+            throw new IllegalArgumentException("Expected " + parameters.size() + " parameters and " + algorithms.size()
+                    + " algorithms, got " + parameterValues.length + " and " + pageFaults.length);
+        }
+        for(int c = 0; c < parameterColumns.length; c++){
+            parameterColumns[c][rows] = parameterValues[c];
+        }
+        for(int a = 0; a < faultColumns.length; a++){
+            faultColumns[a][rows] = pageFaults[a];
+        }
+        if(++rows == chunkRows){
+            if(channel == null){
+                chunks.add(new Chunk(rows, parameterColumns, faultColumns));
+                newChunk();
+            }else{
+                spill();
+            }
+        }
+    }
+
+    /**
+     * Visits every chunk in the order its rows were appended: the spilled ones are read back from the
+     * file one at a time, so reading is bounded in memory as writing is. The chunks must not be
+     * modified, nor kept past the call, as their arrays may be reused.
+     *
+     * @param action The action run for each chunk.
+     */
+    public synchronized void forEachChunk(Consumer<Chunk> action){
+        for(Chunk chunk : chunks){
+            action.accept(chunk);
+        }
+        if(channel != null && spilledRows > 0){
+            readSpilled(action);
+        }
+        if(rows > 0){
+            action.accept(new Chunk(rows, parameterColumns, faultColumns));
+        }
+    }
+
+    /**
+     * @param algorithm The index of an algorithm column.
+     * @return The statistics of the column over every row.
+     */
+    public RunningStatistics statistics(int algorithm){
+        RunningStatistics statistics = new RunningStatistics();
+        forEachChunk(chunk -> {
+            int[] column = chunk.pageFaults()[algorithm];
+            for(int r = 0; r < chunk.rows(); r++){
+                statistics.add(column[r]);
+            }
+        });
+        return statistics;
+    }
+
+    /**
+     * @return The number of rows.
+     */
+    public synchronized long rows(){
+        long stored = channel != null ? spilledRows : (long) chunks.size() * chunkRows;
+        return stored + rows;
+    }
+
+    /**
+     * @return The names of the parameter columns.
+     */
+    public List<String> parameters(){
+        return parameters;
+    }
+
+    /**
+     * @return The names of the algorithm columns.
+     */
+    public List<String> algorithms(){
+        return algorithms;
+    }
+
+    /**
+     * Writes the rows still in memory to the file, if the store spills.
+     */
+    public synchronized void flush(){
+        if(channel != null && rows > 0){
+            spill();
+        }
+    }
+
+    /**
+     * Writes the rows still in memory and closes the file, if the store spills.
+     */
+    @Override
+    public synchronized void close(){
+        if(channel == null || !channel.isOpen()){
+            return;
+        }
+        try{
+            flush();
+        }finally{
+            try{
+                channel.close();
+            }catch(IOException e){
+                throw new UncheckedIOException("Cannot close the trial results " + file, e);
+            }
+        }
+    }
+
+    private void newChunk(){
+        parameterColumns = new double[parameters.size()][chunkRows];
+        faultColumns = new int[algorithms.size()][chunkRows];
+        rows = 0;
+    }
+
+    // appends the chunk to the file as one block and starts the chunk over
+    private void spill(){
+        buffer.clear();
+        buffer.putInt(rows);
+        for(double[] column : parameterColumns){
+            buffer.asDoubleBuffer().put(column, 0, rows);
+            buffer.position(buffer.position() + rows * Double.BYTES);
+        }
+        for(int[] column : faultColumns){
+            buffer.asIntBuffer().put(column, 0, rows);
+            buffer.position(buffer.position() + rows * Integer.BYTES);
+        }
+        buffer.flip();
+        try{
+            long end = channel.size();
+            while(buffer.hasRemaining()){
+                end += channel.write(buffer, end);
+            }
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot write the trial results " + file, e);
+        }
+        spilledRows += rows;
+        rows = 0;
+    }
+
+    private void readSpilled(Consumer<Chunk> action){
+        try{
+            long position = headerSize();
+            double[][] parameterBlock = new double[parameters.size()][];
+            int[][] faultBlock = new int[algorithms.size()][];
+            long end = channel.size();
+            while(position < end){
+                int blockRows = read(channel, position, Integer.BYTES, file).getInt();
+                position += Integer.BYTES;
+                int bytes = blockRows * (parameters.size() * Double.BYTES + algorithms.size() * Integer.BYTES);
+                ByteBuffer block = read(channel, position, bytes, file);
+                position += bytes;
+                for(int c = 0; c < parameterBlock.length; c++){
+                    parameterBlock[c] = new double[blockRows];
+                    block.asDoubleBuffer().get(parameterBlock[c]);
+                    block.position(block.position() + blockRows * Double.BYTES);
+                }
+                for(int a = 0; a < faultBlock.length; a++){
+                    faultBlock[a] = new int[blockRows];
+                    block.asIntBuffer().get(faultBlock[a]);
+                    block.position(block.position() + blockRows * Integer.BYTES);
+                }
+                action.accept(new Chunk(blockRows, parameterBlock, faultBlock));
+            }
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot read the trial results " + file, e);
+        }
+    }
+
+    private long headerSize(){
+        return header(parameters, algorithms).remaining();
+    }
+
+    // magic, version, then the count and the UTF-8 names of the parameter and of the algorithm columns
+    private static ByteBuffer header(List<String> parameters, List<String> algorithms){
+        List<byte[]> names = new ArrayList<>();
+        int size = 4 * Integer.BYTES;
+        for(String name : parameters){
+            names.add(name.getBytes(StandardCharsets.UTF_8));
+        }
+        for(String name : algorithms){
+            names.add(name.getBytes(StandardCharsets.UTF_8));
+        }
+        for(byte[] name : names){
+            size += Integer.BYTES + name.length;
+        }
+        ByteBuffer header = ByteBuffer.allocate(size);
+        header.putInt(MAGIC).putInt(VERSION).putInt(parameters.size());
+        for(int i = 0; i < names.size(); i++){
+            if(i == parameters.size()){
+                header.putInt(algorithms.size());
+            }
+            header.putInt(names.get(i).length).put(names.get(i));
+        }
+        if(algorithms.isEmpty()){
+            header.putInt(0);
+        }
+        return header.flip();
+    }
+
+    // reads a count and that many names, advancing the position
+    private static List<String> readNames(FileChannel channel, long[] position, Path file) throws IOException{
+        int size = read(channel, position[0], Integer.BYTES, file).getInt();
+        position[0] += Integer.BYTES;
+        List<String> names = new ArrayList<>();
+        for(int c = 0; c < size; c++){
+            int length = read(channel, position[0], Integer.BYTES, file).getInt();
+            position[0] += Integer.BYTES;
+            names.add(new String(read(channel, position[0], length, file).array(), StandardCharsets.UTF_8));
+            position[0] += length;
+        }
+        return names;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int bytes, Path file) throws IOException{
+        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        while(buffer.hasRemaining()){
+            if(channel.read(buffer, position + buffer.position()) < 0){
+                throw new IOException("Unexpected end of " + file);
+            }
+        }
+        return buffer.flip();
+    }
+}
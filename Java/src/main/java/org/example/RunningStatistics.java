@@ -0,0 +1,160 @@
+package org.example;
+
+import java.math.BigInteger;
+
+/**
+ * One pass statistics of a stream of counts, e.g. the page faults of one algorithm over the trials
+ * of a sweep point, or the paired difference of two algorithms. Nothing is kept per value.
+ *
+ * The sum and the sum of squares are kept exactly, the latter in 128 bits, so the mean and the
+ * variance are only rounded when they are read and do not depend on the order the values came in:
+ * trials finishing in any order on any number of workers give bit-for-bit the same statistics. The
+ * percentiles come from a {@link LatencyHistogram}, within about 3% and in fixed memory; they only
+ * cover non-negative values, negative ones count as 0.
+ *
+ * Not thread-safe; trials of one point add their values under a lock.
+ */
+public final class RunningStatistics {
+
+    /** Standard normal quantile of a two-sided 95% confidence interval. */
+    public static final double Z95 = 1.959963984540054;
+
+    // Student t quantiles of a two-sided 95% interval for 1 to 30 degrees of freedom
+    private static final double[] T95 = {
+            12.706204736, 4.302652730, 3.182446305, 2.776445105, 2.570581836, 2.446911851, 2.364624252, 2.306004135,
+            2.262157163, 2.228138852, 2.200985160, 2.178812830, 2.160368656, 2.144786688, 2.131449546, 2.119905299,
+            2.109815578, 2.100922040, 2.093024054, 2.085963447, 2.079613845, 2.073873068, 2.068657610, 2.063898562,
+            2.059538553, 2.055529439, 2.051830516, 2.048407142, 2.045229642, 2.042272456};
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long count;
+    private long sum;
+    // the sum of squares, as an unsigned 128-bit number
+    private long squaresHigh;
+    private long squaresLow;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    /**
+     * Adds one value.
+     *
+     * @param value The value.
+     */
+    public void add(long value){
+        count++;
+        sum += value;
+        long low = value * value;
+        long high = Math.multiplyHigh(value, value);
+        squaresLow += low;
+        // carry out of the low word
+        if(Long.compareUnsigned(squaresLow, low) < 0){
+            high++;
+        }
+        squaresHigh += high;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        histogram.record(value);
+    }
+
+    /**
+     * @return The number of values.
+     */
+    public long count(){
+        return count;
+    }
+
+    /**
+     * @return The sum of the values.
+     */
+    public long sum(){
+        return sum;
+    }
+
+    /**
+     * @return The mean of the values, or 0 without values.
+     */
+    public double mean(){
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @return The sample variance of the values, or 0 with fewer than two.
+     */
+    public double variance(){
+        if(count < 2){
+            return 0;
+        }
+        // (n Σx² - (Σx)²) / (n (n - 1)), exact up to the final division
+        BigInteger squares = BigInteger.valueOf(squaresHigh).shiftLeft(64)
+                .add(new BigInteger(Long.toUnsignedString(squaresLow)));
+        BigInteger n = BigInteger.valueOf(count);
+        BigInteger total = BigInteger.valueOf(sum);
+        BigInteger numerator = n.multiply(squares).subtract(total.multiply(total));
+        return numerator.doubleValue() / ((double) count * (count - 1));
+    }
+
+    /**
+     * @return The sample standard deviation of the values.
+     */
+    public double standardDeviation(){
+        return Math.sqrt(variance());
+    }
+
+    /**
+     * @return The standard error of the mean.
+     */
+    public double standardError(){
+        return count == 0 ? 0 : Math.sqrt(variance() / count);
+    }
+
+    /**
+     * @return The half width of the 95% confidence interval of the mean, with the Student t quantile
+     *         for count - 1 degrees of freedom, or 0 with fewer than two values.
+     */
+    public double confidenceHalfWidth(){
+        return count < 2 ? 0 : t95(count - 1) * standardError();
+    }
+
+    /**
+     * @param degreesOfFreedom The degrees of freedom, at least 1.
+     * @return The Student t quantile of a two-sided 95% interval: exact to 9 digits up to 30 degrees of
+     *         freedom, beyond that the Cornish-Fisher expansion around {@link #Z95}, within 1e-6.
+     */
+    static double t95(long degreesOfFreedom){
+        if(degreesOfFreedom < 1){
+            throw new IllegalArgumentException("Degrees of freedom must be positive, got " + degreesOfFreedom);
+        }
+        if(degreesOfFreedom <= T95.length){
+            return T95[(int) degreesOfFreedom - 1];
+        }
+        double v = degreesOfFreedom;
+        double z = Z95;
+        double z2 = z * z;
+        return z + z * (z2 + 1) / (4 * v)
+                + z * ((5 * z2 + 16) * z2 + 3) / (96 * v * v)
+                + z * (((3 * z2 + 19) * z2 + 17) * z2 - 15) / (384 * v * v * v);
+    }
+
+    /**
+     * @return The smallest value, or 0 without values.
+     */
+    public long min(){
+        return count == 0 ? 0 : min;
+    }
+
+    /**
+     * @return The largest value, or 0 without values.
+     */
+    public long max(){
+        return count == 0 ? 0 : max;
+    }
+
+    /**
+     * @param percentile The percentile, from 0 to 100.
+     * @return The value at the percentile, within the precision of {@link LatencyHistogram}, or 0 if it
+     *         is negative.
+     */
+    public long percentile(double percentile){
+        return histogram.percentile(percentile);
+    }
+}
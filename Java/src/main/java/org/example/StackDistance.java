@@ -0,0 +1,106 @@
+package org.example;
+
+/**
+ * Mattson stack distance analysis of a trace, giving the LRU page faults of every cache size in one
+ * pass.
+ *
+ * LRU is a stack algorithm: a request hits a cache of size k exactly when fewer than k distinct pages
+ * were requested since the previous request of the same page. The analysis records that distance for
+ * every request, counting the distinct pages in between with a Fenwick tree over the time of each
+ * page's last access (one bit set per page, at its last access), so the whole trace costs
+ * O(n log n). The fault count of cache size k is then the cold misses plus the requests with a
+ * distance larger than k, identical to {@link Combined#LRU} and {@link LRU}.
+ */
+public final class StackDistance {
+
+    // faultsAbove[d] = cold misses + requests with a stack distance larger than d
+    private final int[] faultsAbove;
+
+    private StackDistance(int[] faultsAbove){
+        this.faultsAbove = faultsAbove;
+    }
+
+    /**
+     * Computes the stack distance profile of a trace.
+     *
+     * @param seq The page request sequence.
+     * @return The profile of the trace.
+     */
+    public static StackDistance of(int[] seq){
+        int n = seq.length;
+        PageIndex lastAccess = PageIndex.forPages(seq, 16);
+        // Fenwick tree over the request times, 1-based
+        int[] tree = new int[n + 1];
+        // histogram[d] = requests with stack distance d, 1 <= d <= n
+        int[] histogram = new int[n + 2];
+        int coldMisses = 0;
+        int distinct = 0;
+
+        for(int t = 0; t < n; t++){
+            int last = lastAccess.get(seq[t]);
+            if(last == PageIndex.ABSENT){
+                coldMisses++;
+                distinct++;
+            }else{
+                // distinct pages accessed after the last access, plus the page itself
+                histogram[prefix(tree, t) - prefix(tree, last + 1) + 1]++;
+                add(tree, last + 1, -1);
+            }
+            add(tree, t + 1, 1);
+            lastAccess.put(seq[t], t);
+        }
+
+        int[] faultsAbove = new int[distinct + 1];
+        int faults = coldMisses;
+        for(int d = distinct; d >= 0; d--){
+            faultsAbove[d] = faults;
+            faults += histogram[d];
+        }
+        return new StackDistance(faultsAbove);
+    }
+
+    /**
+     * @param k The cache size.
+     * @return The number of LRU page faults with a cache of size k.
+     */
+    public int pageFaults(int k){
+        if(k < 1){
+            throw new IllegalArgumentException("Cache size must be positive, got " + k);
+        }
+        return faultsAbove[Math.min(k, faultsAbove.length - 1)];
+    }
+
+    /**
+     * @param maxK The largest cache size.
+     * @return The LRU page faults of every cache size, at index k for k = 1..maxK (index 0 is unused).
+     */
+    public int[] missCurve(int maxK){
+        int[] curve = new int[maxK + 1];
+        for(int k = 1; k <= maxK; k++){
+            curve[k] = pageFaults(k);
+        }
+        return curve;
+    }
+
+    /**
+     * @return The number of distinct pages of the trace, from which on every cache size has only cold misses.
+     */
+    public int distinctPages(){
+        return faultsAbove.length - 1;
+    }
+
+    // sum of the first i entries
+    private static int prefix(int[] tree, int i){
+        int sum = 0;
+        for(; i > 0; i -= i & -i){
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private static void add(int[] tree, int i, int delta){
+        for(; i < tree.length; i += i & -i){
+            tree[i] += delta;
+        }
+    }
+}
@@ -0,0 +1,381 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Declarative description of a parameter sweep.
+ *
+ * Every parameter takes a list of values and the sweep covers the Cartesian product of all of them,
+ * so a 4-D sweep is four lists rather than four copies of the sweep code. N is given either directly
+ * or as a {@code factor} of k (N = factor·k), the way the cache-size sweeps scale the page universe.
+ * Parameters that are not set keep the defaults of the Phase 3 sweeps.
+ *
+ * Sweeps are built in code,
+ * <pre>
+ *     new Sweep("K - Regime 1").k(5, 10, 15, 20, 25, 30).factor(10).epsilon(0.5).tau(0.5)
+ * </pre>
+ * or loaded from a properties file with {@link #load(Path)}:
+ * <pre>
+ *     sweeps = kRegime1
+ *     kRegime1.name = K - Regime 1
+ *     kRegime1.k = 5, 10, 15, 20, 25, 30
+ *     kRegime1.factor = 10
+ *     kRegime1.epsilon = 0.5
+ *     kRegime1.policies = fifo, arc
+ * </pre>
+ * Every sweep compares OPT, Blind Oracle, LRU and Combined; {@link #policies} adds further
+ * {@link PolicyType policies} to the comparison.
+ *
+ * By default every point runs {@link #batchSize} trials. With {@link #precision} a point instead
+ * runs rounds of trials, starting at {@link #minTrials} and doubling, until the 95% confidence
+ * interval of every algorithm's mean page faults is narrower than the target, or up to
+ * {@link #maxTrials}. With {@link #pairwise} the target applies to the paired difference of every two
+ * algorithms instead, which is what telling them apart needs.
+ */
+public final class Sweep {
+
+    /** The sweep parameters, in the order the Cartesian product varies them (last fastest). */
+    public static final List<String> PARAMETERS = List.of("k", "N", "factor", "n", "epsilon", "tau", "w", "threshold");
+
+    private final String name;
+    private final Map<String, double[]> values = new LinkedHashMap<>();
+    private final List<PolicyType> policies = new ArrayList<>();
+    private int batchSize = 100;
+    private long seed = 691;
+    private double precision;
+    private boolean pairwise;
+    private int minTrials = 10;
+    private int maxTrials = 1000;
+
+    /**
+     * Creates a sweep with the default values k = 20, N = 100, n = 10000, ε = 0.5, τ = 0.5,
+     * w = 200, threshold = 0.1, 100 trials per point.
+     *
+     * @param name The name of the sweep, used for the chart title and the result files.
+     */
+    public Sweep(String name){
+        this.name = name;
+        values.put("k", new double[]{20});
+        values.put("N", new double[]{100});
+        values.put("n", new double[]{10000});
+        values.put("epsilon", new double[]{0.5});
+        values.put("tau", new double[]{0.5});
+        values.put("w", new double[]{200});
+        values.put("threshold", new double[]{0.1});
+    }
+
+    public Sweep k(int... k){ return set("k", k); }
+
+    public Sweep N(int... N){
+        values.remove("factor");
+        return set("N", N);
+    }
+
+    /**
+     * Sets N = factor·k instead of a fixed N.
+     *
+     * @param factor The ratio of the number of pages to the cache size.
+     * @return This sweep.
+     */
+    public Sweep factor(int... factor){
+        values.remove("N");
+        return set("factor", factor);
+    }
+
+    public Sweep n(int... n){ return set("n", n); }
+
+    public Sweep epsilon(double... epsilon){ return set("epsilon", epsilon); }
+
+    public Sweep tau(double... tau){ return set("tau", tau); }
+
+    public Sweep w(int... w){ return set("w", w); }
+
+    public Sweep threshold(double... threshold){ return set("threshold", threshold); }
+
+    public Sweep batchSize(int batchSize){
+        if(batchSize < 1){
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public Sweep seed(long seed){
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Runs trials until the confidence intervals are narrow enough instead of a fixed batch.
+     *
+     * @param precision The target half width of the 95% confidence intervals, relative to the mean
+     *                  page faults (of the larger of the two algorithms for pairwise differences),
+     *                  e.g. 0.01 for ±1%; 0 runs {@link #batchSize} trials.
+     * @return This sweep.
+     */
+    public Sweep precision(double precision){
+        if(!(precision >= 0)){
+            throw new IllegalArgumentException("Precision must not be negative, got " + precision);
+        }
+        this.precision = precision;
+        return this;
+    }
+
+    /**
+     * Applies the {@link #precision} to the paired difference of every two algorithms, rather than to
+     * the mean of each.
+     *
+     * @param pairwise true for the differences.
+     * @return This sweep.
+     */
+    public Sweep pairwise(boolean pairwise){
+        this.pairwise = pairwise;
+        return this;
+    }
+
+    /**
+     * Sets the trials of the first round of an adaptive sweep. More trials before the first check make
+     * the early estimates of the variance, and so the stopping decision, more reliable.
+     *
+     * @param minTrials The trials every point runs at least, at least 2.
+     * @return This sweep.
+     */
+    public Sweep minTrials(int minTrials){
+        if(minTrials < 2){
+            throw new IllegalArgumentException("At least 2 trials are needed for a confidence interval, got " + minTrials);
+        }
+        this.minTrials = minTrials;
+        return this;
+    }
+
+    /**
+     * Sets the hard cap on the trials of a point of an adaptive sweep, reached when the precision is not.
+     *
+     * @param maxTrials The trials a point runs at most.
+     * @return This sweep.
+     */
+    public Sweep maxTrials(int maxTrials){
+        if(maxTrials < 1){
+            throw new IllegalArgumentException("Trial cap must be positive, got " + maxTrials);
+        }
+        this.maxTrials = maxTrials;
+        return this;
+    }
+
+    /**
+     * Adds policies to compare next to OPT, Blind Oracle, LRU and Combined.
+     *
+     * @param policies The further policies.
+     * @return This sweep.
+     */
+    public Sweep policies(PolicyType... policies){
+        this.policies.clear();
+        this.policies.addAll(Arrays.asList(policies));
+        return this;
+    }
+
+    public String name(){ return name; }
+
+    public List<PolicyType> policies(){ return List.copyOf(policies); }
+
+    public int batchSize(){ return batchSize; }
+
+    public long seed(){ return seed; }
+
+    public double precision(){ return precision; }
+
+    public boolean pairwise(){ return pairwise; }
+
+    public int minTrials(){ return minTrials; }
+
+    public int maxTrials(){ return maxTrials; }
+
+    /**
+     * @return true if the points run trials until the {@link #precision} is reached.
+     */
+    public boolean isAdaptive(){
+        return precision > 0;
+    }
+
+    /**
+     * @return The most trials a point can run: {@link #maxTrials} if adaptive, else {@link #batchSize}.
+     */
+    public int trialCap(){
+        return isAdaptive() ? maxTrials : batchSize;
+    }
+
+    /**
+     * @return The parameters of this sweep that take more than one value, in {@link #PARAMETERS} order.
+     */
+    public List<String> varied(){
+        List<String> varied = new ArrayList<>();
+        for(String parameter : PARAMETERS){
+            double[] v = values.get(parameter);
+            if(v != null && v.length > 1){
+                varied.add(parameter);
+            }
+        }
+        return varied;
+    }
+
+    /**
+     * @return The parameter on the x axis of the charts: the first varied parameter, or k.
+     */
+    public String xParameter(){
+        List<String> varied = varied();
+        return varied.isEmpty() ? "k" : varied.get(0);
+    }
+
+    /**
+     * @return The parameters written as CSV columns: the x parameter followed by every other parameter.
+     */
+    public List<String> columns(){
+        List<String> columns = new ArrayList<>();
+        columns.add(xParameter());
+        for(String parameter : PARAMETERS){
+            if(values.containsKey(parameter) && !parameter.equals(xParameter())){
+                columns.add(parameter);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Expands the Cartesian product of the parameter values.
+     *
+     * @return Every parameter point of the sweep.
+     */
+    public List<SweepPoint> points(){
+        List<String> present = new ArrayList<>();
+        for(String parameter : PARAMETERS){
+            if(values.containsKey(parameter)){
+                present.add(parameter);
+            }
+        }
+
+        List<SweepPoint> points = new ArrayList<>();
+        int[] index = new int[present.size()];
+        while(true){
+            Map<String, Double> point = new LinkedHashMap<>();
+            for(int p = 0; p < present.size(); p++){
+                point.put(present.get(p), values.get(present.get(p))[index[p]]);
+            }
+            int k = point.get("k").intValue();
+            int N = point.containsKey("factor") ? point.get("factor").intValue() * k : point.get("N").intValue();
+            points.add(new SweepPoint(k, N, point.get("n").intValue(), point.get("epsilon"), point.get("tau"),
+                    point.get("w").intValue(), point.get("threshold")));
+
+            // odometer over the value lists, last parameter fastest
+            int p = present.size() - 1;
+            while(p >= 0 && ++index[p] == values.get(present.get(p)).length){
+                index[p--] = 0;
+            }
+            if(p < 0){
+                return points;
+            }
+        }
+    }
+
+    /**
+     * Loads the sweeps of a properties file. The key {@code sweeps} lists the sweep ids; every
+     * other key is {@code <id>.<parameter>} with a comma separated list of values, or
+     * {@code <id>.name}, {@code <id>.batchSize}, {@code <id>.seed}, {@code <id>.policies},
+     * {@code <id>.precision}, {@code <id>.pairwise}, {@code <id>.minTrials} and {@code <id>.maxTrials}.
+     *
+     * @param file The properties file.
+     * @return The sweeps, in the order of the {@code sweeps} key.
+     * @throws IOException If the file cannot be read.
+     */
+    public static List<Sweep> load(Path file) throws IOException{
+        Properties properties = new Properties();
+        try(Reader reader = Files.newBufferedReader(file)){
+            properties.load(reader);
+        }
+        return load(properties);
+    }
+
+    /**
+     * Loads the sweeps described by a set of properties, see {@link #load(Path)}.
+     *
+     * @param properties The sweep properties.
+     * @return The sweeps.
+     */
+    public static List<Sweep> load(Properties properties){
+        String ids = properties.getProperty("sweeps");
+        if(ids == null){
+            throw new IllegalArgumentException("Missing the 'sweeps' key listing the sweep ids");
+        }
+
+        List<Sweep> sweeps = new ArrayList<>();
+        for(String id : ids.split(",")){
+            id = id.trim();
+            Sweep sweep = new Sweep(properties.getProperty(id + ".name", id));
+            for(String parameter : PARAMETERS){
+                String list = properties.getProperty(id + "." + parameter);
+                if(list != null){
+                    if(parameter.equals("factor")) sweep.values.remove("N");
+                    if(parameter.equals("N")) sweep.values.remove("factor");
+                    sweep.values.put(parameter, parse(list));
+                }
+            }
+            if(sweep.values.containsKey("N") && sweep.values.containsKey("factor")){
+                throw new IllegalArgumentException("Sweep " + id + " sets both N and factor");
+            }
+            String batchSize = properties.getProperty(id + ".batchSize");
+            if(batchSize != null){
+                sweep.batchSize(Integer.parseInt(batchSize.trim()));
+            }
+            String seed = properties.getProperty(id + ".seed");
+            if(seed != null){
+                sweep.seed(Long.parseLong(seed.trim()));
+            }
+            String precision = properties.getProperty(id + ".precision");
+            if(precision != null){
+                sweep.precision(Double.parseDouble(precision.trim()));
+            }
+            String pairwise = properties.getProperty(id + ".pairwise");
+            if(pairwise != null){
+                sweep.pairwise(Boolean.parseBoolean(pairwise.trim()));
+            }
+            String minTrials = properties.getProperty(id + ".minTrials");
+            if(minTrials != null){
+                sweep.minTrials(Integer.parseInt(minTrials.trim()));
+            }
+            String maxTrials = properties.getProperty(id + ".maxTrials");
+            if(maxTrials != null){
+                sweep.maxTrials(Integer.parseInt(maxTrials.trim()));
+            }
+            String policies = properties.getProperty(id + ".policies");
+            if(policies != null){
+                sweep.policies(Arrays.stream(policies.split(",")).map(PolicyType::parse).toArray(PolicyType[]::new));
+            }
+            sweeps.add(sweep);
+        }
+        return sweeps;
+    }
+
+    private static double[] parse(String list){
+        return Arrays.stream(list.split(",")).map(String::trim).mapToDouble(Double::parseDouble).toArray();
+    }
+
+    private Sweep set(String parameter, int... v){
+        return set(parameter, Arrays.stream(v).asDoubleStream().toArray());
+    }
+
+    private Sweep set(String parameter, double... v){
+        if(v.length == 0){
+            throw new IllegalArgumentException("Sweep parameter " + parameter + " needs at least one value");
+        }
+        values.put(parameter, v.clone());
+        return this;
+    }
+}
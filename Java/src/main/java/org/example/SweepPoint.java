@@ -0,0 +1,33 @@
+package org.example;
+
+/**
+ * One parameter point (k, N, n, ε, τ, w, threshold) of a sweep.
+ *
+ * @param k         The cache size.
+ * @param N         The total number of pages.
+ * @param n         The size of the reference string.
+ * @param epsilon   The probability of selecting a page from the local set.
+ * @param tau       The threshold for adding noise to the sequence.
+ * @param w         The working set window size.
+ * @param threshold The threshold for the Combined algorithm.
+ */
+public record SweepPoint(int k, int N, int n, double epsilon, double tau, int w, double threshold) {
+
+    /**
+     * @param parameter One of the names in {@link Sweep#PARAMETERS}.
+     * @return The value of the parameter at this point.
+     */
+    public Number value(String parameter){
+        return switch(parameter){
+            case "k" -> k;
+            case "N" -> N;
+            case "factor" -> N / k;
+            case "n" -> n;
+            case "epsilon" -> epsilon;
+            case "tau" -> tau;
+            case "w" -> w;
+            case "threshold" -> threshold;
+            default -> throw new IllegalArgumentException("Unknown sweep parameter: " + parameter);
+        };
+    }
+}
@@ -0,0 +1,187 @@
+package org.example;
+
+import org.jfree.chart.ChartUtilities;
+import org.jfree.chart.JFreeChart;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes the results of a sweep for headless runs.
+ *
+ * Every sweep point is appended to {@code <directory>/<sweep>.csv} and flushed as soon as it is
+ * recorded, so partial results of a long sweep can be inspected while it is still running. The
+ * final chart is rendered off-screen to {@code <directory>/<sweep>.png}. Points recorded with their
+ * trial statistics also go to {@code <directory>/<sweep>-summary.csv}: the number of trials, then
+ * the mean, the standard deviation, the half width of the 95% confidence interval and the 5th, 50th
+ * and 95th percentiles of each algorithm.
+ */
+public final class SweepRecorder implements Closeable {
+
+    /** Width of the rendered charts, same as the chart panel of the Swing frames. */
+    static final int CHART_WIDTH = 800;
+    /** Height of the rendered charts. */
+    static final int CHART_HEIGHT = 600;
+
+    /** The algorithm columns of every sweep. */
+    public static final List<String> ALGORITHMS = List.of("opt", "blindOracle", "lru", "combined");
+
+    private static final List<String> SUMMARY = List.of("mean", "sd", "ci95", "p5", "p50", "p95");
+
+    private final BufferedWriter writer;
+    private final Path summaryFile;
+    private final String summaryHeader;
+    private BufferedWriter summary;
+
+    private SweepRecorder(BufferedWriter writer, Path summaryFile, String summaryHeader){
+        this.writer = writer;
+        this.summaryFile = summaryFile;
+        this.summaryHeader = summaryHeader;
+    }
+
+    /**
+     * Opens a recorder for one sweep, or a recorder that ignores every point when there is no output
+     * directory, e.g. when the sweep is plotted on screen.
+     *
+     * @param directory  The output directory, or null.
+     * @param name       The name of the sweep.
+     * @param algorithms The names of the algorithm columns.
+     * @param parameters The names of the parameter columns.
+     * @return The recorder of the sweep.
+     */
+    public static SweepRecorder forSweep(Path directory, String name, List<String> algorithms, String... parameters){
+        if(directory == null){
+            return new SweepRecorder(null, null, null);
+        }
+        return open(directory, name, algorithms, parameters);
+    }
+
+    // opens a recorder writing <directory>/<sweep>.csv, with the parameter columns before the algorithm columns
+    private static SweepRecorder open(Path directory, String name, List<String> algorithms, String... parameters){
+        try{
+            Files.createDirectories(directory);
+            BufferedWriter writer = Files.newBufferedWriter(directory.resolve(fileName(name) + ".csv"));
+            writer.write(String.join(",", parameters) + "," + String.join(",", algorithms));
+            writer.newLine();
+            writer.flush();
+            StringBuilder summaryHeader = new StringBuilder(String.join(",", parameters)).append(",trials");
+            for(String algorithm : algorithms){
+                for(String statistic : SUMMARY){
+                    summaryHeader.append(',').append(algorithm).append('_').append(statistic);
+                }
+            }
+            return new SweepRecorder(writer, directory.resolve(fileName(name) + "-summary.csv"), summaryHeader.toString());
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot open the results of sweep " + name, e);
+        }
+    }
+
+    // appends the means of one sweep point and flushes them to disk
+    private void record(Number[] parameters, double[] pageFaults){
+        if(writer == null){
+            return;
+        }
+        try{
+            StringBuilder row = new StringBuilder();
+            for(Number parameter : parameters){
+                row.append(parameter).append(',');
+            }
+            for(double value : pageFaults){
+                row.append(String.format(Locale.ROOT, "%.4f", value)).append(',');
+            }
+            row.setLength(row.length() - 1);
+            writer.write(row.toString());
+            writer.newLine();
+            writer.flush();
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot write sweep point " + Arrays.toString(parameters), e);
+        }
+    }
+
+    /**
+     * Appends one sweep point, its means to the results and its statistics to the summary, and
+     * flushes both to disk.
+     *
+     * @param parameters The values of the parameter columns.
+     * @param statistics The page fault statistics of each algorithm column over the trials of the point.
+     */
+    public synchronized void record(Number[] parameters, RunningStatistics[] statistics){
+        double[] means = new double[statistics.length];
+        for(int j = 0; j < statistics.length; j++){
+            means[j] = statistics[j].mean();
+        }
+        record(parameters, means);
+        if(writer == null){
+            return;
+        }
+        try{
+            if(summary == null){
+                summary = Files.newBufferedWriter(summaryFile);
+                summary.write(summaryHeader);
+                summary.newLine();
+            }
+            StringBuilder row = new StringBuilder();
+            for(Number parameter : parameters){
+                row.append(parameter).append(',');
+            }
+            row.append(statistics[0].count()).append(',');
+            for(RunningStatistics statistic : statistics){
+                row.append(String.format(Locale.ROOT, "%.4f,%.4f,%.4f,%d,%d,%d,", statistic.mean(), statistic.standardDeviation(),
+                        statistic.confidenceHalfWidth(), statistic.percentile(5), statistic.percentile(50), statistic.percentile(95)));
+            }
+            row.setLength(row.length() - 1);
+            summary.write(row.toString());
+            summary.newLine();
+            summary.flush();
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot write the summary of sweep point " + Arrays.toString(parameters), e);
+        }
+    }
+
+    @Override
+    public synchronized void close(){
+        if(writer == null){
+            return;
+        }
+        try{
+            writer.close();
+            if(summary != null){
+                summary.close();
+            }
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot close sweep results", e);
+        }
+    }
+
+    /**
+     * Renders a chart off-screen to {@code <directory>/<name>.png}.
+     *
+     * @param directory The output directory, created if missing.
+     * @param name      The name of the sweep.
+     * @param chart     The chart to render.
+     * @return The path of the written image.
+     */
+    public static Path saveChart(Path directory, String name, JFreeChart chart){
+        try{
+            Files.createDirectories(directory);
+            Path file = directory.resolve(fileName(name) + ".png");
+            ChartUtilities.saveChartAsPNG(file.toFile(), chart, CHART_WIDTH, CHART_HEIGHT);
+            return file;
+        }catch(IOException e){
+            throw new UncheckedIOException("Cannot write the chart of sweep " + name, e);
+        }
+    }
+
+    // "τ - regime 1" -> "tau-regime-1"
+    static String fileName(String name){
+        String ascii = name.replace("ε", "epsilon").replace("τ", "tau");
+        return ascii.replaceAll("[^A-Za-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+}
@@ -0,0 +1,427 @@
+package org.example;
+
+import org.jfree.chart.JFreeChart;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.StructuredTaskScope;
+
+/**
+ * Runs any number of sweeps as one job.
+ *
+ * The sweeps form one task tree of structured concurrency: the job forks a virtual thread per sweep,
+ * and every sweep forks a virtual thread per point. A point runs its trials as a fork-join task tree
+ * on the simulation pool, which is bounded to the machine, while the virtual threads only wait,
+ * record and plot, so plotting a finished sweep never holds a simulation worker. Points are streamed
+ * to the sweep's {@link SweepRecorder} in point order: a point is written as soon as it and every
+ * point before it are done, so the files do not depend on which point finishes first. As soon as
+ * every point of a sweep is done, {@link #run} plots it. If any trial fails, its point, its sweep and
+ * the whole job are cancelled: the other threads are interrupted, trials that have not started are
+ * skipped, every file is closed, and the failure is thrown by {@link #run} or {@link #execute}.
+ *
+ * Points of {@link Sweep#isAdaptive() adaptive} sweeps run in rounds: a point whose confidence
+ * intervals are still too wide when its round is done runs a round as long again, up to the trial
+ * cap. Stable points stop after a few trials and noisy ones get the trials they need, so the time of
+ * a sweep follows its variance. Fixed sweeps are a single round of {@link Sweep#batchSize} trials.
+ *
+ * No trial is thrown away: each adds its page faults to the {@link RunningStatistics} of its point,
+ * which give the recorded means and the summary with standard deviations, confidence intervals and
+ * percentiles. With an output directory every trial is also appended as a row to the sweep's
+ * {@link ResultStore}, spilled to {@code <sweep>.trials} in that directory, in point and trial order
+ * along with its point.
+ *
+ * Trial t of every point of a sweep uses the same trace seed, so points with the same (k, N, n, ε)
+ * get their sequence and h-sequence from the shared {@link TraceCache} and only redo the noise
+ * and the simulations. The noise of each trial comes from its own split stream of the sweep seed.
+ * The streams of a point are split from the point's own stream in trial order, and a point only
+ * stops on the statistics of whole rounds, so the results do not depend on the pool size or on how
+ * the threads interleave.
+ */
+public final class SweepRunner {
+
+    private final ForkJoinPool pool;
+    private final TraceCache traces;
+    private final Path outputDirectory;
+
+    /**
+     * Creates a runner that writes no files and plots on screen.
+     *
+     * @param pool The pool every trial runs on.
+     */
+    public SweepRunner(ForkJoinPool pool){
+        this(pool, new TraceCache());
+    }
+
+    /**
+     * Creates a runner that writes no files and plots on screen.
+     *
+     * @param pool   The pool every trial runs on.
+     * @param traces The cache the generated traces are shared through.
+     */
+    public SweepRunner(ForkJoinPool pool, TraceCache traces){
+        this(pool, traces, null);
+    }
+
+    /**
+     * @param pool            The pool every trial runs on.
+     * @param traces          The cache the generated traces are shared through.
+     * @param outputDirectory The directory the results and charts of every sweep are written to, or
+     *                        null to write nothing and plot on screen.
+     */
+    public SweepRunner(ForkJoinPool pool, TraceCache traces, Path outputDirectory){
+        this.pool = pool;
+        this.traces = traces;
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Runs the sweeps, records every point and plots every sweep as soon as it is done.
+     *
+     * @param sweeps The sweeps to run.
+     * @return For each sweep, the mean page faults of OPT, Blind Oracle, LRU, Combined and the sweep's
+     *         further policies at each point.
+     */
+    public List<double[][]> run(List<Sweep> sweeps){
+        return runAll(sweeps, true);
+    }
+
+    /**
+     * Runs the sweeps and records every point, without plotting.
+     *
+     * @param sweeps The sweeps to run.
+     * @return For each sweep, the mean page faults of OPT, Blind Oracle, LRU, Combined and the sweep's
+     *         further policies at each point.
+     */
+    public List<double[][]> execute(List<Sweep> sweeps){
+        return runAll(sweeps, false);
+    }
+
+    // one subtask per sweep; the first failure cancels the others and is rethrown
+    private List<double[][]> runAll(List<Sweep> sweeps, boolean plot){
+        try(StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure("sweeps", Thread.ofVirtual().factory())){
+            List<StructuredTaskScope.Subtask<double[][]>> results = new ArrayList<>();
+            for(Sweep sweep : sweeps){
+                results.add(scope.fork(() -> runSweep(sweep, plot)));
+            }
+            join(scope);
+            List<double[][]> means = new ArrayList<>();
+            for(StructuredTaskScope.Subtask<double[][]> result : results){
+                means.add(result.get());
+            }
+            return means;
+        }
+    }
+
+    private double[][] runSweep(Sweep sweep, boolean plot){
+        List<String> columns = sweep.columns();
+        List<String> algorithms = new ArrayList<>(SweepRecorder.ALGORITHMS);
+        sweep.policies().forEach(policy -> algorithms.add(policy.column()));
+        List<SweepPoint> sweepPoints = sweep.points();
+        double[][] means = new double[sweepPoints.size()][];
+
+        // the trace seed of trial t is the same at every point of the sweep
+        SplittableRandom root = new SplittableRandom(sweep.seed());
+        long[] traceSeeds = new long[sweep.trialCap()];
+        for(int t = 0; t < traceSeeds.length; t++){
+            traceSeeds[t] = root.nextLong();
+        }
+
+        ResultStore store = null;
+        try(SweepRecorder recorder = SweepRecorder.forSweep(outputDirectory, sweep.name(), algorithms, columns.toArray(new String[0]))){
+            if(outputDirectory != null){
+                List<String> parameters = new ArrayList<>(columns);
+                parameters.add("trial");
+                store = ResultStore.forSweep(outputDirectory, sweep.name(), parameters, algorithms);
+            }
+            PointState[] points = new PointState[sweepPoints.size()];
+            for(int p = 0; p < points.length; p++){
+                points[p] = new PointState(sweepPoints.get(p), sweep, traceSeeds, root.split(), columns);
+            }
+            PointWriter writer = new PointWriter(points, recorder, store);
+            try(StructuredTaskScope.ShutdownOnFailure scope = new StructuredTaskScope.ShutdownOnFailure(sweep.name(), Thread.ofVirtual().factory())){
+                for(int p = 0; p < points.length; p++){
+                    PointState point = points[p];
+                    int index = p;
+                    scope.fork(() -> {
+                        means[index] = runPoint(point);
+                        writer.done(index);
+                        return null;
+                    });
+                }
+                join(scope);
+            }
+        }finally{
+            if(store != null){
+                store.close();
+            }
+        }
+        if(plot){
+            plot(sweep, sweepPoints, means, outputDirectory);
+        }
+        return means;
+    }
+
+    // runs the rounds of one point on the pool and returns its means
+    private double[] runPoint(PointState point) throws InterruptedException{
+        while(true){
+            List<Trial> trials = point.nextRound();
+            ForkJoinTask<Void> round = pool.submit(TrialScheduler.trials(trials.size(), t -> runTrial(trials.get(t))));
+            try{
+                round.get();
+            }catch(InterruptedException e){
+                // cancelled by a failure elsewhere: the running trials finish, the others are skipped
+                point.cancelled = true;
+                round.quietlyJoin();
+                throw e;
+            }catch(ExecutionException e){
+                point.cancelled = true;
+                throw unwrap(e.getCause());
+            }
+            if(point.scheduled == point.cap || point.converged()){
+                double[] means = new double[point.algorithms];
+                for(int j = 0; j < point.algorithms; j++){
+                    means[j] = point.statistics[j].mean();
+                }
+                return means;
+            }
+        }
+    }
+
+    // runs one trial on a pool worker and adds it to its point, unless the point was cancelled
+    private void runTrial(Trial trial){
+        PointState point = trial.point();
+        if(point.cancelled){
+            return;
+        }
+        SweepPoint p = point.point;
+        TraceCache.Trace trace = traces.get(p.k(), p.N(), p.n(), p.epsilon(), trial.traceSeed());
+        int[] pageFaults = TrialSimulator.run(p.k(), trace.sequence(), trace.hSequence(), p.tau(), p.w(), p.threshold(),
+                point.policies, trial.random());
+        point.add(trial.index(), pageFaults);
+    }
+
+    // waits for every subtask and rethrows the first failure as it was thrown
+    private static void join(StructuredTaskScope.ShutdownOnFailure scope){
+        try{
+            scope.join();
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Sweeps interrupted");
+        }
+        scope.throwIfFailed(SweepRunner::unwrap);
+    }
+
+    private static RuntimeException unwrap(Throwable failure){
+        if(failure instanceof RuntimeException e){
+            return e;
+        }
+        if(failure instanceof Error e){
+            throw e;
+        }
+        return new IllegalStateException("Sweep failed", failure);
+    }
+
+    /**
+     * Plots a sweep: one chart with the x parameter on the x axis for every combination of the
+     * other varied parameters.
+     *
+     * @param sweep  The sweep.
+     * @param points The points of the sweep.
+     * @param means  The mean page faults at each point.
+     */
+    public static void plot(Sweep sweep, List<SweepPoint> points, double[][] means){
+        plot(sweep, points, means, null);
+    }
+
+    /**
+     * Plots a sweep, see {@link #plot(Sweep, List, double[][])}, rendering the charts to a directory.
+     *
+     * @param sweep     The sweep.
+     * @param points    The points of the sweep.
+     * @param means     The mean page faults at each point.
+     * @param directory The directory the charts are written to as PNG, or null to show them on screen.
+     */
+    public static void plot(Sweep sweep, List<SweepPoint> points, double[][] means, Path directory){
+        String x = sweep.xParameter();
+        List<String> others = new ArrayList<>(sweep.varied());
+        others.remove(x);
+
+        Map<String, List<Integer>> groups = new LinkedHashMap<>();
+        for(int p = 0; p < points.size(); p++){
+            StringBuilder key = new StringBuilder();
+            for(String parameter : others){
+                key.append(key.length() == 0 ? "" : ", ").append(parameter).append('=').append(points.get(p).value(parameter));
+            }
+            groups.computeIfAbsent(key.toString(), ignored -> new ArrayList<>()).add(p);
+        }
+
+        List<String> labels = new ArrayList<>(List.of("OPT", "Blind Oracle", "LRU", "Combined"));
+        sweep.policies().forEach(policy -> labels.add(policy.label()));
+
+        for(Map.Entry<String, List<Integer>> group : groups.entrySet()){
+            List<Number> xValues = new ArrayList<>();
+            List<List<Double>> series = new ArrayList<>();
+            for(int j = 0; j < labels.size(); j++){
+                series.add(new ArrayList<>());
+            }
+            for(int p : group.getValue()){
+                xValues.add(points.get(p).value(x));
+                for(int j = 0; j < labels.size(); j++){
+                    series.get(j).add(means[p][j]);
+                }
+            }
+            String name = group.getKey().isEmpty() ? sweep.name() : sweep.name() + " (" + group.getKey() + ")";
+            JFreeChart chart = Combined.createPageFaultChart(labels, series, xValues, name);
+            if(directory != null){
+                SweepRecorder.saveChart(directory, name, chart);
+            }else{
+                Combined.showChart(chart, name);
+            }
+        }
+    }
+
+    // one trial of one point
+    private record Trial(PointState point, int index, long traceSeed, SplittableRandom random) {
+    }
+
+    // where the trials of a point report to
+    private static final class PointState {
+
+        final SweepPoint point;
+        final List<PolicyType> policies;
+        final int algorithms;
+        final Number[] columns;
+        final RunningStatistics[] statistics;
+        // pairwise sweeps only: the difference of every two algorithms a < b, in (a, b) order
+        final RunningStatistics[] differences;
+        // the page faults of each trial, kept until the point is written
+        final int[][] trialFaults;
+
+        final long[] traceSeeds;
+        final SplittableRandom random;
+        final double precision;
+        final int firstRound;
+        final int cap;
+        int scheduled;
+        volatile boolean cancelled;
+
+        PointState(SweepPoint point, Sweep sweep, long[] traceSeeds, SplittableRandom random, List<String> columns){
+            this.point = point;
+            this.policies = sweep.policies();
+            this.algorithms = SweepRecorder.ALGORITHMS.size() + policies.size();
+            this.columns = columns.stream().map(point::value).toArray(Number[]::new);
+            this.statistics = newStatistics(algorithms);
+            this.differences = sweep.isAdaptive() && sweep.pairwise() ? newStatistics(algorithms * (algorithms - 1) / 2) : null;
+            this.trialFaults = new int[sweep.trialCap()][];
+            this.traceSeeds = traceSeeds;
+            this.random = random;
+            this.precision = sweep.precision();
+            this.cap = sweep.trialCap();
+            this.firstRound = sweep.isAdaptive() ? Math.min(sweep.minTrials(), cap) : cap;
+        }
+
+        // the trials of the next round: the first, then as many again as have run, up to the cap
+        List<Trial> nextRound(){
+            int end = scheduled == 0 ? firstRound : Math.min(cap, 2 * scheduled);
+            List<Trial> trials = new ArrayList<>(end - scheduled);
+            for(int t = scheduled; t < end; t++){
+                trials.add(new Trial(this, t, traceSeeds[t], random.split()));
+            }
+            scheduled = end;
+            return trials;
+        }
+
+        synchronized void add(int trial, int[] pageFaults){
+            trialFaults[trial] = pageFaults;
+            int pair = 0;
+            for(int a = 0; a < algorithms; a++){
+                statistics[a].add(pageFaults[a]);
+                if(differences != null){
+                    for(int b = a + 1; b < algorithms; b++){
+                        differences[pair++].add((long) pageFaults[a] - pageFaults[b]);
+                    }
+                }
+            }
+        }
+
+        // true once the confidence interval of every mean, or of every difference, is within the precision
+        boolean converged(){
+            if(precision == 0){
+                return false;
+            }
+            int pair = 0;
+            for(int a = 0; a < algorithms; a++){
+                if(differences == null){
+                    if(statistics[a].confidenceHalfWidth() > precision * statistics[a].mean()){
+                        return false;
+                    }
+                    continue;
+                }
+                for(int b = a + 1; b < algorithms; b++){
+                    double scale = Math.max(statistics[a].mean(), statistics[b].mean());
+                    if(differences[pair++].confidenceHalfWidth() > precision * scale){
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static RunningStatistics[] newStatistics(int count){
+            RunningStatistics[] statistics = new RunningStatistics[count];
+            for(int j = 0; j < count; j++){
+                statistics[j] = new RunningStatistics();
+            }
+            return statistics;
+        }
+    }
+
+    // writes the finished points of a sweep in point order, holding back those that finish early
+    private static final class PointWriter {
+
+        private final PointState[] points;
+        private final SweepRecorder recorder;
+        private final ResultStore store;
+        private final boolean[] done;
+        private int next;
+
+        PointWriter(PointState[] points, SweepRecorder recorder, ResultStore store){
+            this.points = points;
+            this.recorder = recorder;
+            this.store = store;
+            this.done = new boolean[points.length];
+        }
+
+        synchronized void done(int index){
+            done[index] = true;
+            while(next < points.length && done[next]){
+                write(points[next]);
+                // the trials of a written point are no longer needed
+                points[next++] = null;
+            }
+        }
+
+        private void write(PointState point){
+            recorder.record(point.columns, point.statistics);
+            if(store == null){
+                return;
+            }
+            double[] row = new double[point.columns.length + 1];
+            for(int c = 0; c < point.columns.length; c++){
+                row[c] = point.columns[c].doubleValue();
+            }
+            for(int t = 0; t < point.scheduled; t++){
+                row[point.columns.length] = t;
+                store.append(row, point.trialFaults[t]);
+            }
+        }
+    }
+}
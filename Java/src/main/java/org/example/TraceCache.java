@@ -0,0 +1,164 @@
+package org.example;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of generated traces shared by every trial that needs the same one.
+ *
+ * A trace is the page request sequence and its h-sequence, which only depend on (k, N, n, ε) and
+ * the seed of the generator. Sweep points that differ only in τ, w or the threshold therefore reuse
+ * the same traces and only rerun the cheap noise and simulation stages.
+ *
+ * The traces are kept in access order within a memory budget; when adding a trace would exceed the
+ * budget the least recently used traces are evicted. A trace being generated by one thread is
+ * waited for, not generated again, by the others asking for it.
+ */
+public final class TraceCache {
+
+    /**
+     * A generated trace.
+     *
+     * @param sequence  The page request sequence.
+     * @param hSequence The h-sequence of the sequence.
+     */
+    public record Trace(int[] sequence, int[] hSequence) {
+
+        /**
+         * @return The approximate heap footprint of the trace in bytes.
+         */
+        public long bytes(){
+            return 4L * (sequence.length + hSequence.length) + 64;
+        }
+    }
+
+    private record Key(int k, int N, int n, double epsilon, long seed) {
+    }
+
+    // the trace of a key, generated once by the first thread asking for it
+    private static final class Entry {
+
+        private final Key key;
+        private volatile Trace trace;
+
+        Entry(Key key){
+            this.key = key;
+        }
+
+        Trace trace(){
+            Trace result = trace;
+            if(result == null){
+                synchronized(this){
+                    result = trace;
+                    if(result == null){
+                        int[] sequence = new int[Math.max(key.n(), key.k())];
+                        Combined.generateRandomSequence(key.k(), key.N(), key.epsilon(), key.seed(), sequence);
+                        result = new Trace(sequence, Combined.generateH(sequence));
+                        trace = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private final long capacityBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache using at most a quarter of the maximum heap.
+     */
+    public TraceCache(){
+        this(Runtime.getRuntime().maxMemory() / 4);
+    }
+
+    /**
+     * @param capacityBytes The memory budget of the cached traces, in bytes.
+     */
+    public TraceCache(long capacityBytes){
+        this.capacityBytes = capacityBytes;
+    }
+
+    /**
+     * Returns the trace for the given parameters, generating it on first use.
+     *
+     * @param k       The cache size.
+     * @param N       The total number of pages.
+     * @param n       The length of the generated sequence.
+     * @param epsilon The probability of selecting a page from the local set.
+     * @param seed    The seed of the generator.
+     * @return The trace.
+     */
+    public Trace get(int k, int N, int n, double epsilon, long seed){
+        Key key = new Key(k, N, n, epsilon, seed);
+        Entry entry;
+        boolean created = false;
+        synchronized(this){
+            entry = entries.get(key);
+            if(entry == null){
+                entry = new Entry(key);
+                entries.put(key, entry);
+                created = true;
+                misses++;
+            }else{
+                hits++;
+            }
+        }
+
+        Trace trace = entry.trace();
+
+        if(created){
+            synchronized(this){
+                // the entry may already have been evicted while it was being generated
+                if(entries.get(key) == entry){
+                    bytes += trace.bytes();
+                    evict(entry);
+                }
+            }
+        }
+        return trace;
+    }
+
+    /**
+     * @return The number of lookups served by a cached trace.
+     */
+    public synchronized long hits(){
+        return hits;
+    }
+
+    /**
+     * @return The number of traces generated.
+     */
+    public synchronized long misses(){
+        return misses;
+    }
+
+    /**
+     * @return The bytes used by the cached traces.
+     */
+    public synchronized long bytes(){
+        return bytes;
+    }
+
+    // drops least recently used traces until the budget holds, never the one just added
+    private void evict(Entry keep){
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while(bytes > capacityBytes && iterator.hasNext()){
+            Entry eldest = iterator.next().getValue();
+            if(eldest == keep){
+                continue;
+            }
+            Trace trace = eldest.trace;
+            if(trace == null){
+                // still being generated; its size is added when it completes
+                continue;
+            }
+            iterator.remove();
+            bytes -= trace.bytes();
+        }
+    }
+}
@@ -0,0 +1,481 @@
+package org.example;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary page trace read through memory mapped windows, so traces of hundreds of millions of
+ * requests can be replayed without loading them onto the heap.
+ *
+ * A trace file is a 64 byte little endian header followed by the page column and, optionally, the
+ * next-arrival column:
+ * <pre>
+ *     0  int   magic "PGTR"
+ *     4  short version (1)
+ *     6  short flags: 1 = varint pages, 2 = next-arrival column
+ *     8  long  number of requests
+ *     16 int   smallest page id
+ *     20 int   largest page id
+ *     24 long  offset of the page column
+ *     32 long  length of the page column in bytes
+ *     40 long  offset of the next-arrival column, 0 if absent
+ * </pre>
+ * Pages are stored either as fixed width ints or as the zigzag LEB128 varint of the difference to
+ * the previous page, which takes one or two bytes per request for traces with locality. The
+ * next-arrival column holds the h-sequence of the trace (see {@link Combined#generateH(int[])}) as
+ * fixed width ints, so Blind Oracle and Combined can be replayed with the true next arrivals.
+ *
+ * Traces written without next arrivals can get them from a sidecar file built by
+ * {@link NextArrivalBuilder}: {@code <trace>.next}, a 16 byte header (magic "PGNA", version, number
+ * of requests) followed by the same fixed width column. {@link #open} attaches the sidecar of a trace
+ * automatically when it exists.
+ *
+ * A {@link Cursor} maps one window of each column at a time and maps the next window when it
+ * reaches the end of the current one, so only the windows being read are resident.
+ */
+public final class TraceFile {
+
+    /** Flag of traces whose pages are varint encoded deltas. */
+    public static final int VARINT = 1;
+    /** Flag of traces with a next-arrival column. */
+    public static final int NEXT_ARRIVAL = 2;
+
+    static final int MAGIC = 0x52544750; // "PGTR" read little endian
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int SIDECAR_MAGIC = 0x414E4750; // "PGNA" read little endian
+    static final int SIDECAR_HEADER_BYTES = 16;
+
+    // size of the mapped windows; a window never ends inside a value it has to return
+    static final long DEFAULT_WINDOW = 64L << 20;
+
+    private final Path path;
+    private final int flags;
+    private final long length;
+    private final int minPage;
+    private final int maxPage;
+    private final long pagesOffset;
+    private final long pagesBytes;
+    // where the next-arrival column is read from: the trace itself or its sidecar
+    private final Path nextPath;
+    private final long nextOffset;
+
+    private TraceFile(TraceFile trace, Path nextPath, long nextOffset){
+        this.path = trace.path;
+        this.flags = trace.flags | NEXT_ARRIVAL;
+        this.length = trace.length;
+        this.minPage = trace.minPage;
+        this.maxPage = trace.maxPage;
+        this.pagesOffset = trace.pagesOffset;
+        this.pagesBytes = trace.pagesBytes;
+        this.nextPath = nextPath;
+        this.nextOffset = nextOffset;
+    }
+
+    private TraceFile(Path path, ByteBuffer header){
+        this.path = path;
+        if(header.getInt(0) != MAGIC){
+            throw new IllegalArgumentException(path + " is not a trace file");
+        }
+        if(header.getShort(4) != VERSION){
+            throw new IllegalArgumentException(path + " has unsupported trace version " + header.getShort(4));
+        }
+        this.flags = header.getShort(6);
+        this.length = header.getLong(8);
+        this.minPage = header.getInt(16);
+        this.maxPage = header.getInt(20);
+        this.pagesOffset = header.getLong(24);
+        this.pagesBytes = header.getLong(32);
+        this.nextOffset = header.getLong(40);
+        this.nextPath = path;
+    }
+
+    /**
+     * Opens a trace file, reading only its header. A trace without a next-arrival column gets the
+     * one of its sidecar file, if there is one.
+     *
+     * @param path The trace file.
+     * @return The trace.
+     * @throws IOException If the file cannot be read.
+     */
+    public static TraceFile open(Path path) throws IOException{
+        TraceFile trace = new TraceFile(path, readHeader(path, HEADER_BYTES));
+        Path sidecar = sidecar(path);
+        if(!trace.hasNextArrival() && Files.exists(sidecar)){
+            return trace.withNextArrivals(sidecar);
+        }
+        return trace;
+    }
+
+    /**
+     * @param path The trace file.
+     * @return The path of the sidecar file holding the next arrivals of the trace.
+     */
+    public static Path sidecar(Path path){
+        return path.resolveSibling(path.getFileName() + ".next");
+    }
+
+    /**
+     * Reads the next arrivals of this trace from a sidecar file.
+     *
+     * @param sidecar The sidecar file written by {@link NextArrivalBuilder}.
+     * @return A view of this trace with the next-arrival column of the sidecar.
+     * @throws IOException If the sidecar cannot be read.
+     */
+    public TraceFile withNextArrivals(Path sidecar) throws IOException{
+        ByteBuffer header = readHeader(sidecar, SIDECAR_HEADER_BYTES);
+        if(header.getInt(0) != SIDECAR_MAGIC || header.getInt(4) != VERSION){
+            throw new IllegalArgumentException(sidecar + " is not a next-arrival sidecar");
+        }
+        if(header.getLong(8) != length){
+            throw new IllegalArgumentException(sidecar + " has " + header.getLong(8) + " next arrivals for " + length + " requests");
+        }
+        return new TraceFile(this, sidecar, SIDECAR_HEADER_BYTES);
+    }
+
+    private static ByteBuffer readHeader(Path path, int bytes) throws IOException{
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            ByteBuffer header = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+            while(header.hasRemaining()){
+                if(channel.read(header, header.position()) < 0){
+                    throw new IllegalArgumentException(path + " is too short for a trace file");
+                }
+            }
+            return header;
+        }
+    }
+
+    /**
+     * Writes a whole trace held in memory.
+     *
+     * @param path        The trace file, replaced if it exists.
+     * @param pages       The page request sequence.
+     * @param nextArrival The h-sequence of the pages, or null to write no next-arrival column.
+     * @param varint      true to store the pages as varint deltas, false as fixed width ints.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(Path path, int[] pages, int[] nextArrival, boolean varint) throws IOException{
+        if(nextArrival != null && nextArrival.length != pages.length){
+            throw new IllegalArgumentException("Next-arrival column has " + nextArrival.length + " values for " + pages.length + " pages");
+        }
+        try(Writer writer = create(path, varint)){
+            for(int page : pages){
+                writer.append(page);
+            }
+            if(nextArrival != null){
+                writer.appendNextArrivals(nextArrival);
+            }
+        }
+    }
+
+    /**
+     * Creates a trace file whose pages are appended one by one, for traces too long to hold in memory.
+     *
+     * @param path   The trace file, replaced if it exists.
+     * @param varint true to store the pages as varint deltas, false as fixed width ints.
+     * @return The writer of the trace.
+     * @throws IOException If the file cannot be created.
+     */
+    public static Writer create(Path path, boolean varint) throws IOException{
+        return new Writer(path, varint);
+    }
+
+    /**
+     * @return A cursor at the first request.
+     * @throws IOException If the file cannot be mapped.
+     */
+    public Cursor cursor() throws IOException{
+        return cursor(DEFAULT_WINDOW);
+    }
+
+    Cursor cursor(long window) throws IOException{
+        return new Cursor(window, 0, 0, 0);
+    }
+
+    /**
+     * Opens a cursor in the middle of the trace.
+     *
+     * @param window   The size of the mapped windows.
+     * @param position The index of the first request to read.
+     * @param offset   The offset of that request in the page column, see {@link Cursor#pageOffset()}.
+     * @param previous The page before that request, for varint traces.
+     * @return The cursor.
+     * @throws IOException If the file cannot be mapped.
+     */
+    Cursor cursor(long window, long position, long offset, int previous) throws IOException{
+        return new Cursor(window, position, offset, previous);
+    }
+
+    public Path path(){ return path; }
+
+    /**
+     * @return The number of requests of the trace.
+     */
+    public long length(){ return length; }
+
+    public int minPage(){ return minPage; }
+
+    public int maxPage(){ return maxPage; }
+
+    /**
+     * @return true if the pages are stored as varint deltas.
+     */
+    public boolean isVarint(){ return (flags & VARINT) != 0; }
+
+    /**
+     * @return true if the trace has a next-arrival column.
+     */
+    public boolean hasNextArrival(){ return (flags & NEXT_ARRIVAL) != 0; }
+
+    /**
+     * @return The bytes of the page column.
+     */
+    public long pageBytes(){ return pagesBytes; }
+
+    /**
+     * Creates the cheapest page table for the pages of this trace, dense when its page range is small.
+     *
+     * @param expected The expected number of live entries (e.g. the cache size).
+     * @return An empty page table.
+     */
+    PageIndex pageIndex(int expected){
+        return length == 0 ? PageIndex.hashed(expected) : PageIndex.forRange(minPage, maxPage, length, expected);
+    }
+
+    /**
+     * Sequential reader of a trace. Not thread safe; every thread replaying a trace uses its own cursor.
+     */
+    public final class Cursor implements Closeable {
+
+        private final FileChannel channel;
+        private final FileChannel nextChannel;
+        private final Window pages;
+        private final Window next;
+        private long position;
+        private int previous;
+
+        private Cursor(long window, long position, long offset, int previous) throws IOException{
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+            this.nextChannel = nextPath.equals(path) || !hasNextArrival() ? channel : FileChannel.open(nextPath, StandardOpenOption.READ);
+            this.pages = new Window(channel, pagesOffset + offset, pagesOffset + pagesBytes, window);
+            this.next = hasNextArrival() ? new Window(nextChannel, nextOffset + 4 * position, nextOffset + 4 * length, window) : null;
+            this.position = position;
+            this.previous = previous;
+        }
+
+        /**
+         * @return true if there are requests left.
+         */
+        public boolean hasNext(){
+            return position < length;
+        }
+
+        /**
+         * @return The index of the next request.
+         */
+        public long position(){
+            return position;
+        }
+
+        /**
+         * @return The offset of the next request in the page column.
+         */
+        public long pageOffset(){
+            return pages.offset() - pagesOffset;
+        }
+
+        /**
+         * Reads the page of the next request. With a next-arrival column, {@link #nextArrival()}
+         * must be read for every request too.
+         *
+         * @return The requested page.
+         */
+        public int nextPage(){
+            position++;
+            if(!isVarint()){
+                return pages.buffer(4).getInt();
+            }
+            ByteBuffer buffer = pages.buffer(5);
+            int value = 0;
+            int shift = 0;
+            int b;
+            do{
+                b = buffer.get();
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            }while((b & 0x80) != 0);
+            // zigzag decoding of the delta
+            previous += (value >>> 1) ^ -(value & 1);
+            return previous;
+        }
+
+        /**
+         * @return The next arrival of the request whose page was read last.
+         */
+        public int nextArrival(){
+            if(next == null){
+                throw new IllegalStateException(path + " has no next-arrival column");
+            }
+            return next.buffer(4).getInt();
+        }
+
+        @Override
+        public void close() throws IOException{
+            channel.close();
+            nextChannel.close();
+        }
+    }
+
+    // a read only mapping of one part of a column, moved forward as the column is read
+    private static final class Window {
+
+        private final FileChannel channel;
+        private final long end;
+        private final long size;
+        private long start;
+        private MappedByteBuffer buffer;
+
+        Window(FileChannel channel, long start, long end, long size){
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.size = size;
+        }
+
+        // absolute file offset of the next byte to read
+        long offset(){
+            return buffer == null ? start : start + buffer.position();
+        }
+
+        // the mapped buffer, remapped if fewer than `needed` bytes are left in the current window
+        ByteBuffer buffer(int needed){
+            if(buffer == null || (buffer.remaining() < needed && start + buffer.limit() < end)){
+                long from = buffer == null ? start : start + buffer.position();
+                try{
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, from, Math.min(size, end - from));
+                }catch(IOException e){
+                    throw new UncheckedIOException("Cannot map trace bytes at " + from, e);
+                }
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                start = from;
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Appends pages to a new trace file and writes its header when closed.
+     */
+    public static final class Writer implements Closeable {
+
+        private final Path path;
+        private final boolean varint;
+        private final OutputStream out;
+        private final byte[] scratch = new byte[8];
+
+        private long length;
+        private long pageBytes;
+        private long nextArrivals = -1;
+        private int minPage = Integer.MAX_VALUE;
+        private int maxPage = Integer.MIN_VALUE;
+        private int previous;
+
+        private Writer(Path path, boolean varint) throws IOException{
+            this.path = path;
+            this.varint = varint;
+            this.out = new BufferedOutputStream(Files.newOutputStream(path), 1 << 16);
+            out.write(new byte[HEADER_BYTES]);
+        }
+
+        /**
+         * Appends one request.
+         *
+         * @param page The requested page.
+         * @throws IOException If the file cannot be written.
+         */
+        public void append(int page) throws IOException{
+            if(nextArrivals >= 0){
+                throw new IllegalStateException("Pages cannot follow the next-arrival column");
+            }
+            length++;
+            minPage = Math.min(minPage, page);
+            maxPage = Math.max(maxPage, page);
+            if(!varint){
+                writeInt(page);
+                pageBytes += 4;
+                return;
+            }
+            int delta = page - previous;
+            previous = page;
+            int value = (delta << 1) ^ (delta >> 31);
+            while((value & ~0x7F) != 0){
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+                pageBytes++;
+            }
+            out.write(value);
+            pageBytes++;
+        }
+
+        /**
+         * Appends the next-arrival column, one value for every page appended.
+         *
+         * @param nextArrival The h-sequence of the pages.
+         * @throws IOException If the file cannot be written.
+         */
+        public void appendNextArrivals(int[] nextArrival) throws IOException{
+            if(nextArrival.length != length){
+                throw new IllegalArgumentException("Next-arrival column has " + nextArrival.length + " values for " + length + " pages");
+            }
+            nextArrivals = HEADER_BYTES + pageBytes;
+            for(int h : nextArrival){
+                writeInt(h);
+            }
+        }
+
+        /**
+         * @return The number of requests appended so far.
+         */
+        public long length(){
+            return length;
+        }
+
+        @Override
+        public void close() throws IOException{
+            out.close();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MAGIC);
+            header.putShort(4, (short) VERSION);
+            header.putShort(6, (short) ((varint ? VARINT : 0) | (nextArrivals >= 0 ? NEXT_ARRIVAL : 0)));
+            header.putLong(8, length);
+            header.putInt(16, length == 0 ? 0 : minPage);
+            header.putInt(20, length == 0 ? 0 : maxPage);
+            header.putLong(24, HEADER_BYTES);
+            header.putLong(32, pageBytes);
+            header.putLong(40, Math.max(nextArrivals, 0));
+            try(FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)){
+                while(header.hasRemaining()){
+                    channel.write(header, header.position());
+                }
+            }
+        }
+
+        private void writeInt(int value) throws IOException{
+            scratch[0] = (byte) value;
+            scratch[1] = (byte) (value >>> 8);
+            scratch[2] = (byte) (value >>> 16);
+            scratch[3] = (byte) (value >>> 24);
+            out.write(scratch, 0, 4);
+        }
+    }
+}
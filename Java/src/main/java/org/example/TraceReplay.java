@@ -0,0 +1,117 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Replays a {@link TraceFile} through paging engines, reading the trace from its mapped windows.
+ *
+ * Every cache size is one pass over the trace that advances all the engines together. OPT
+ * ({@link Belady}) and Combined need the next-arrival column and are left out of traces without
+ * one, as are the {@link PolicyType policies} that use predictions; with next arrivals those are fed
+ * the true ones.
+ */
+public final class TraceReplay {
+
+    private TraceReplay(){
+    }
+
+    /**
+     * Runs engines over a whole trace.
+     *
+     * @param trace    The trace.
+     * @param policies The engines, normally empty.
+     * @return The page faults of each engine.
+     * @throws IOException If the trace cannot be read.
+     */
+    public static int[] pageFaults(TraceFile trace, PagingPolicy... policies) throws IOException{
+        boolean predictions = trace.hasNextArrival();
+        try(TraceFile.Cursor cursor = trace.cursor()){
+            while(cursor.hasNext()){
+                int page = cursor.nextPage();
+                int h = predictions ? cursor.nextArrival() : 0;
+                for(PagingPolicy policy : policies){
+                    policy.onRequest(page, h);
+                }
+            }
+        }
+        int[] pageFaults = new int[policies.length];
+        for(int j = 0; j < policies.length; j++){
+            pageFaults[j] = policies[j].pageFaults();
+        }
+        return pageFaults;
+    }
+
+    /**
+     * @param trace The trace.
+     * @return The engines {@link #replay} runs on the trace, as CSV column names.
+     */
+    public static List<String> columns(TraceFile trace){
+        List<String> columns = new ArrayList<>();
+        if(trace.hasNextArrival()){
+            columns.add("opt");
+        }
+        columns.add("lru");
+        if(trace.hasNextArrival()){
+            columns.add("combined");
+        }
+        for(PolicyType type : PolicyType.values()){
+            if(trace.hasNextArrival() || !type.usesPredictions()){
+                columns.add(type.column());
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Replays a trace with one cache size through every engine of {@link #columns}.
+     *
+     * @param trace     The trace.
+     * @param k         The cache size.
+     * @param threshold The threshold for the Combined algorithm.
+     * @param seed      The seed of the randomized policies.
+     * @return The page faults of each engine, in the order of {@link #columns}.
+     * @throws IOException If the trace cannot be read.
+     */
+    public static int[] replay(TraceFile trace, int k, double threshold, long seed) throws IOException{
+        List<PagingPolicy> engines = new ArrayList<>();
+        if(trace.hasNextArrival()){
+            engines.add(trace.length() <= Integer.MAX_VALUE - 2
+                    ? new Belady(k, (int) trace.length()) : new Belady(k, trace.pageIndex(k)));
+        }
+        engines.add(new LRU(k, trace.pageIndex(k)));
+        if(trace.hasNextArrival()){
+            engines.add(new CombinedAlg(k, threshold, trace.pageIndex(k), trace.pageIndex(k)));
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for(PolicyType type : PolicyType.values()){
+            if(trace.hasNextArrival() || !type.usesPredictions()){
+                engines.add(type.create(k, threshold, trace.pageIndex(2 * k), random));
+            }
+        }
+        return pageFaults(trace, engines.toArray(new PagingPolicy[0]));
+    }
+
+    /**
+     * Replays a trace for several cache sizes and prints one CSV row per size.
+     *
+     * @param trace      The trace.
+     * @param cacheSizes The cache sizes.
+     * @param threshold  The threshold for the Combined algorithm.
+     * @param out        Where the CSV is printed.
+     * @throws IOException If the trace cannot be read.
+     */
+    public static void print(TraceFile trace, int[] cacheSizes, double threshold, PrintStream out) throws IOException{
+        out.println("k," + String.join(",", columns(trace)));
+        for(int k : cacheSizes){
+            StringBuilder row = new StringBuilder().append(k);
+            for(int pageFaults : replay(trace, k, threshold, 691L)){
+                row.append(',').append(pageFaults);
+            }
+            out.println(row);
+        }
+    }
+}
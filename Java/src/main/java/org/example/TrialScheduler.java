@@ -0,0 +1,140 @@
+package org.example;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Runs the trials of a batch in parallel on a fork-join (work-stealing) pool.
+ *
+ * Before any trial starts, the batch seed is split into one {@link SplittableRandom} stream per
+ * trial, in trial order. Trial i therefore sees the same random numbers no matter which worker
+ * runs it or how many workers there are. The page faults of every trial are kept and added to the
+ * {@link RunningStatistics} of each algorithm, and to an optional {@link ResultStore}, in trial
+ * order once the batch is done, so the result is bit-for-bit identical for every pool size.
+ */
+public final class TrialScheduler {
+
+    /** The parameter columns of the trial rows written by {@link #batchStatistics}. */
+    public static final List<String> TRIAL_PARAMETERS = List.of("k", "N", "n", "epsilon", "tau", "w", "threshold", "trial");
+
+    private TrialScheduler(){
+    }
+
+    /**
+     * Executes a batch of reproducible trials in parallel and returns the mean page faults.
+     *
+     * @param pool       The pool the trials run on.
+     * @param batchSize  The number of trials to execute.
+     * @param k          The cache size.
+     * @param N          The total number of pages.
+     * @param n          The size of the reference string.
+     * @param epsilon    The probability of selecting a page from the local set.
+     * @param tau        The threshold for adding noise to the sequence.
+     * @param w          The working set window size.
+     * @param threshold  The threshold for the Combined algorithm.
+     * @param seed       The seed of the batch.
+     * @return The mean page faults of OPT, Blind Oracle, LRU and Combined over all trials.
+     */
+    public static double[] batchTrial(ForkJoinPool pool, int batchSize, int k, int N, int n, double epsilon,
+                                      double tau, int w, double threshold, long seed){
+        RunningStatistics[] statistics = batchStatistics(pool, batchSize, k, N, n, epsilon, tau, w, threshold, seed, null);
+        double[] meanPageFaults = new double[statistics.length];
+        for(int j = 0; j < statistics.length; j++){
+            meanPageFaults[j] = statistics[j].mean();
+        }
+        return meanPageFaults;
+    }
+
+    /**
+     * Executes a batch of reproducible trials in parallel and returns the page fault statistics of
+     * each algorithm over the trials.
+     *
+     * @param pool       The pool the trials run on.
+     * @param batchSize  The number of trials to execute.
+     * @param k          The cache size.
+     * @param N          The total number of pages.
+     * @param n          The size of the reference string.
+     * @param epsilon    The probability of selecting a page from the local set.
+     * @param tau        The threshold for adding noise to the sequence.
+     * @param w          The working set window size.
+     * @param threshold  The threshold for the Combined algorithm.
+     * @param seed       The seed of the batch.
+     * @param trials     The store every trial is appended to, with the parameter columns
+     *                   {@link #TRIAL_PARAMETERS} and the four algorithm columns, or null.
+     * @return The statistics of OPT, Blind Oracle, LRU and Combined over all trials.
+     */
+    public static RunningStatistics[] batchStatistics(ForkJoinPool pool, int batchSize, int k, int N, int n, double epsilon,
+                                                      double tau, int w, double threshold, long seed, ResultStore trials){
+
+        if(batchSize < 1){
+            throw new IllegalArgumentException("Batch size must be positive, got " + batchSize);
+        }
+
+        // one split stream per trial, created in trial order
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[batchSize];
+        for(int i = 0; i < batchSize; i++){
+            streams[i] = root.split();
+        }
+
+        int[][] pageFaults = new int[batchSize][];
+        pool.invoke(trials(batchSize, i -> pageFaults[i] = Combined.singleTrial(k, N, n, epsilon, tau, w, threshold, streams[i])));
+
+        RunningStatistics[] statistics = new RunningStatistics[pageFaults[0].length];
+        for(int j = 0; j < statistics.length; j++){
+            statistics[j] = new RunningStatistics();
+        }
+        for(int i = 0; i < batchSize; i++){
+            for(int j = 0; j < statistics.length; j++){
+                statistics[j].add(pageFaults[i][j]);
+            }
+            if(trials != null){
+                trials.append(new double[]{k, N, n, epsilon, tau, w, threshold, i}, pageFaults[i]);
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * Creates the fork-join task that runs trials 0 to count - 1, splitting the range in halves until
+     * a single trial is left. The caller keeps the results of each trial by its index.
+     *
+     * @param count The number of trials.
+     * @param trial Runs the trial of the given index.
+     * @return The task, to be invoked or submitted on a pool.
+     */
+    static ForkJoinTask<Void> trials(int count, IntConsumer trial){
+        return new TrialTask(trial, 0, count);
+    }
+
+    // Splits the trial range in halves until a single trial is left. ForkJoinTask is Serializable,
+    // but the tasks only ever live on the pool.
+    @SuppressWarnings("serial")
+    private static final class TrialTask extends RecursiveAction {
+
+        private final IntConsumer trial;
+        private final int from;
+        private final int to;
+
+        TrialTask(IntConsumer trial, int from, int to){
+            this.trial = trial;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute(){
+            if(to - from == 1){
+                trial.accept(from);
+                return;
+            }
+
+            int mid = (from + to) >>> 1;
+            invokeAll(new TrialTask(trial, from, mid), new TrialTask(trial, mid, to));
+        }
+    }
+}
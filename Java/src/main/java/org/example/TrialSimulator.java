@@ -0,0 +1,135 @@
+package org.example;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Single pass simulator of every algorithm of a trial.
+ *
+ * Instead of walking the trace once for OPT, once for the noisy Blind Oracle, once for LRU and once
+ * more for the combined algorithm, each request is read once and handed to all four engines, with
+ * its noisy prediction drawn at that moment. The trace is streamed through the caches a single time
+ * and the page tables of the four engines are sized from one scan of it.
+ *
+ * The fault counts are the same as running {@link BlindOracle}, {@link LRU} and {@link CombinedAlg}
+ * one after the other. Any further {@link PolicyType policies} are driven by the same loop and their
+ * faults follow the four in the result.
+ */
+public final class TrialSimulator {
+
+    private final Belady opt;
+    private final BlindOracle blind;
+    private final LRU lru;
+    private final CombinedAlg combined;
+    private final PagingPolicy[] others;
+
+    /**
+     * Creates the engines of a trial for the pages of a trace.
+     *
+     * @param k         The cache size.
+     * @param threshold The threshold for the Combined algorithm.
+     * @param sequence  The page request sequence, scanned once to choose the page tables.
+     */
+    public TrialSimulator(int k, double threshold, int[] sequence){
+        this(k, threshold, sequence, List.of(), null);
+    }
+
+    /**
+     * Creates the engines of a trial for the pages of a trace, with further policies.
+     *
+     * @param k         The cache size.
+     * @param threshold The threshold for the Combined algorithm.
+     * @param sequence  The page request sequence, scanned once to choose the page tables.
+     * @param policies  The policies simulated after the four algorithms.
+     * @param random    The generator of the randomized policies.
+     */
+    public TrialSimulator(int k, double threshold, int[] sequence, List<PolicyType> policies, RandomGenerator random){
+        PageIndex pages = PageIndex.forPages(sequence, k);
+        this.opt = new Belady(k, sequence.length);
+        this.blind = new BlindOracle(k, pages);
+        this.lru = new LRU(k, pages.emptyCopy(k));
+        this.combined = new CombinedAlg(k, threshold, pages.emptyCopy(k), pages.emptyCopy(k));
+        this.others = new PagingPolicy[policies.size()];
+        for(int j = 0; j < others.length; j++){
+            others[j] = policies.get(j).create(k, threshold, pages.emptyCopy(2 * k), random);
+        }
+    }
+
+    /**
+     * Serves one request in every engine.
+     *
+     * @param page      The requested page.
+     * @param h         The true next arrival of the page, used by OPT.
+     * @param predicted The noisy prediction, used by Blind Oracle and Combined.
+     */
+    public void request(int page, int h, int predicted){
+        opt.onRequest(page, h);
+        blind.onRequest(page, predicted);
+        lru.onRequest(page, predicted);
+        combined.onRequest(page, predicted);
+        for(PagingPolicy policy : others){
+            policy.onRequest(page, predicted);
+        }
+    }
+
+    /**
+     * @return The page faults of OPT, Blind Oracle, LRU, Combined and then every further policy so far.
+     */
+    public int[] pageFaults(){
+        int[] pageFaults = new int[4 + others.length];
+        pageFaults[0] = opt.pageFaults();
+        pageFaults[1] = blind.pageFaults();
+        pageFaults[2] = lru.pageFaults();
+        pageFaults[3] = combined.pageFaults();
+        for(int j = 0; j < others.length; j++){
+            pageFaults[4 + j] = others[j].pageFaults();
+        }
+        return pageFaults;
+    }
+
+    /**
+     * Runs a whole trial in one pass over the trace.
+     *
+     * @param k         The cache size.
+     * @param sequence  The page request sequence.
+     * @param hSequence The h-sequence of the sequence.
+     * @param tau       The probability of replacing a prediction with a noisy one.
+     * @param w         The width of the noise window.
+     * @param threshold The threshold for the Combined algorithm.
+     * @param random    The random generator of the noise.
+     * @return The page faults of OPT, Blind Oracle, LRU and Combined.
+     */
+    public static int[] run(int k, int[] sequence, int[] hSequence, double tau, int w, double threshold, RandomGenerator random){
+        return run(k, sequence, hSequence, tau, w, threshold, List.of(), random);
+    }
+
+    /**
+     * Runs a whole trial in one pass over the trace, with further policies. When one of them is
+     * randomized it gets its own generator, seeded from the trial's before any noise is drawn; trials
+     * without randomized policies draw exactly the same noise as the four algorithm version.
+     *
+     * @param k         The cache size.
+     * @param sequence  The page request sequence.
+     * @param hSequence The h-sequence of the sequence.
+     * @param tau       The probability of replacing a prediction with a noisy one.
+     * @param w         The width of the noise window.
+     * @param threshold The threshold for the Combined algorithm.
+     * @param policies  The policies simulated after the four algorithms.
+     * @param random    The random generator of the trial.
+     * @return The page faults of OPT, Blind Oracle, LRU, Combined and then every further policy.
+     */
+    public static int[] run(int k, int[] sequence, int[] hSequence, double tau, int w, double threshold,
+                            List<PolicyType> policies, RandomGenerator random){
+        RandomGenerator policyRandom = null;
+        if(policies.stream().anyMatch(PolicyType::isRandomized)){
+            policyRandom = new SplittableRandom(random.nextLong());
+        }
+        TrialSimulator simulator = new TrialSimulator(k, threshold, sequence, policies, policyRandom);
+        NoiseStream noise = new NoiseStream(hSequence, tau, w, random);
+        for(int i = 0; i < sequence.length; i++){
+            simulator.request(sequence[i], hSequence[i], noise.next());
+        }
+        return simulator.pageFaults();
+    }
+}
@@ -0,0 +1,104 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashSet;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ARCTest {
+
+    @Test
+    public void testScanDoesNotFlushFrequentPages() {
+        int k = 4;
+        // 1 and 2 are hot; a long scan of pages seen once runs through T1 only
+        int[] seq = new int[60];
+        int n = 0;
+        for (int round = 0; round < 3; round++) {
+            seq[n++] = 1;
+            seq[n++] = 2;
+        }
+        for (int page = 100; page < 150; page++) {
+            seq[n++] = page;
+        }
+        seq[n++] = 1;
+        seq[n++] = 2;
+        int[] trace = java.util.Arrays.copyOf(seq, n);
+
+        assertEquals(52, ARC.pageFaults(k, trace), "The hot pages must survive the scan");
+        assertTrue(LRU.pageFaults(k, trace) > ARC.pageFaults(k, trace));
+    }
+
+    @Test
+    public void testMatchesReferenceImplementation() {
+        SplittableRandom random = new SplittableRandom(9);
+        for (int trial = 0; trial < 30; trial++) {
+            int k = 1 + random.nextInt(20);
+            int N = k + 1 + random.nextInt(200);
+            int[] seq = new int[3000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+
+            assertEquals(reference(k, seq), ARC.pageFaults(k, seq), "ARC k:" + k + " N:" + N);
+        }
+    }
+
+    // the pseudo code of the ARC paper over insertion ordered sets, least recently used first
+    private static int reference(int c, int[] seq) {
+        LinkedHashSet<Integer> t1 = new LinkedHashSet<>();
+        LinkedHashSet<Integer> t2 = new LinkedHashSet<>();
+        LinkedHashSet<Integer> b1 = new LinkedHashSet<>();
+        LinkedHashSet<Integer> b2 = new LinkedHashSet<>();
+        int p = 0;
+        int faults = 0;
+        for (int x : seq) {
+            if (t1.contains(x) || t2.contains(x)) {
+                t1.remove(x);
+                t2.remove(x);
+                t2.add(x);
+                continue;
+            }
+            faults++;
+            if (b1.contains(x)) {
+                p = Math.min(c, p + Math.max(b2.size() / b1.size(), 1));
+                replace(t1, t2, b1, b2, p, false);
+                b1.remove(x);
+                t2.add(x);
+            } else if (b2.contains(x)) {
+                p = Math.max(0, p - Math.max(b1.size() / b2.size(), 1));
+                replace(t1, t2, b1, b2, p, true);
+                b2.remove(x);
+                t2.add(x);
+            } else {
+                if (t1.size() + b1.size() == c) {
+                    if (t1.size() < c) {
+                        b1.remove(b1.iterator().next());
+                        replace(t1, t2, b1, b2, p, false);
+                    } else {
+                        t1.remove(t1.iterator().next());
+                    }
+                } else if (t1.size() + t2.size() + b1.size() + b2.size() >= c) {
+                    if (t1.size() + t2.size() + b1.size() + b2.size() == 2 * c) {
+                        b2.remove(b2.iterator().next());
+                    }
+                    replace(t1, t2, b1, b2, p, false);
+                }
+                t1.add(x);
+            }
+        }
+        return faults;
+    }
+
+    private static void replace(LinkedHashSet<Integer> t1, LinkedHashSet<Integer> t2, LinkedHashSet<Integer> b1,
+                                LinkedHashSet<Integer> b2, int p, boolean inB2) {
+        if (!t1.isEmpty() && ((inB2 && t1.size() == p) || t1.size() > p || t2.isEmpty())) {
+            int page = t1.iterator().next();
+            t1.remove(page);
+            b1.add(page);
+        } else {
+            int page = t2.iterator().next();
+            t2.remove(page);
+            b2.add(page);
+        }
+    }
+}
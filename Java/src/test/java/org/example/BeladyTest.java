@@ -0,0 +1,65 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BeladyTest {
+
+    @Test
+    public void testMatchesPreviousOptNumbers() {
+        for (int k : new int[]{1, 3, 10, 50}) {
+            for (long seed = 0; seed < 5; seed++) {
+                int[] seq = new int[3000];
+                Combined.generateRandomSequence(k, 4 * k + 3, 0.5, seed, seq);
+                int[] h = Combined.generateH(seq);
+                List<Integer> seqList = Arrays.stream(seq).boxed().toList();
+                List<Integer> hList = Arrays.stream(h).boxed().toList();
+
+                int expected = Combined.blindOracle(k, seqList, hList);
+                assertEquals(expected, Belady.pageFaults(k, h), "k=" + k + " seed=" + seed);
+                assertEquals(expected, PagingPolicy.pageFaults(new Belady(k), seq, h), "stream k=" + k);
+                assertEquals(expected, BlindOracle.pageFaults(k, seq, h));
+            }
+        }
+    }
+
+    @Test
+    public void testSmallExample() {
+        // k = 2: 3 evicts 2, 2 evicts 3, 4 evicts 2, 2 evicts 4
+        int[] seq = {1, 2, 3, 1, 2, 4, 1, 2};
+        int[] h = Combined.generateH(seq);
+        assertEquals(6, Belady.pageFaults(2, h));
+        assertEquals(4, Belady.pageFaults(3, h));
+        assertEquals(4, Belady.pageFaults(8, h));
+    }
+
+    @Test
+    public void testRejectsFalseNextArrivals() {
+        Belady stream = new Belady(2);
+        stream.onRequest(7, 5);
+        assertThrows(IllegalArgumentException.class, () -> stream.onRequest(7, 6));
+        assertThrows(IllegalArgumentException.class, () -> new Belady(2, 10).onRequest(1, 1));
+    }
+
+    @Test
+    public void testPositionSet() {
+        PositionSet set = new PositionSet(300_000);
+        assertEquals(-1, set.max());
+        for (int p : new int[]{5, 299_999, 4096, 262_144, 70}) {
+            set.add(p);
+        }
+        assertEquals(299_999, set.max());
+        set.remove(299_999);
+        assertEquals(262_144, set.max());
+        set.remove(262_144);
+        set.remove(4096);
+        assertEquals(70, set.max());
+        assertEquals(2, set.size());
+        set.clear();
+        assertEquals(-1, set.max());
+    }
+}
@@ -0,0 +1,114 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class BlindOracleTest {
+
+    @Test
+    public void testMatchesBlindOracleWithTrueH() {
+        SplittableRandom random = new SplittableRandom(1);
+        for (int trial = 0; trial < 50; trial++) {
+            int k = 1 + random.nextInt(30);
+            int N = k + 1 + random.nextInt(200);
+            int[] seq = new int[2000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+            int[] hSeq = Combined.generateH(seq);
+
+            int expected = Combined.blindOracle(k, box(seq), box(hSeq));
+            assertEquals(expected, BlindOracle.pageFaults(k, seq, hSeq), "OPT page faults for k:" + k + " N:" + N);
+        }
+    }
+
+    @Test
+    public void testMatchesBlindOracleWithTiedPredictions() {
+        // predictions that tie often, over page ids well past the 16 buckets of a new HashMap
+        SplittableRandom random = new SplittableRandom(2);
+        for (int trial = 0; trial < 100; trial++) {
+            int k = 1 + random.nextInt(40);
+            int N = k + 1 + random.nextInt(300);
+            int[] seq = new int[2000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+            int[] predictions = new int[seq.length];
+            for (int i = 0; i < predictions.length; i++) {
+                predictions[i] = i + 1 + random.nextInt(20);
+            }
+
+            int expected = Combined.blindOracle(k, box(seq), box(predictions));
+            assertEquals(expected, BlindOracle.pageFaults(k, seq, predictions), "BlindOracle page faults for k:" + k + " N:" + N);
+        }
+    }
+
+    @Test
+    public void testMatchesBlindOracleWithNoisyPredictions() {
+        // the sweep workloads: noisy h-sequences, where pages predicted past the end all tie
+        SplittableRandom random = new SplittableRandom(3);
+        for (int trial = 0; trial < 100; trial++) {
+            int k = 1 + random.nextInt(30);
+            int N = Math.max(17, k * (2 + random.nextInt(15)));
+            int[] seq = new int[3000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+            int[] noisy = Combined.addNoise(Combined.generateH(seq), random.nextDouble(), 1 + random.nextInt(300), random.split());
+
+            int expected = Combined.blindOracle(k, box(seq), box(noisy));
+            assertEquals(expected, BlindOracle.pageFaults(k, seq, noisy), "BlindOracle page faults for k:" + k + " N:" + N);
+        }
+    }
+
+    @Test
+    public void testTiesFollowTheHashMapOrder() {
+        // every page is predicted at 10, so each eviction is a tie
+        int[] tied = new int[40];
+        Arrays.fill(tied, 10);
+
+        // page 16 falls in bucket 0 ahead of page 1, so both evict 16 and fault on its second request
+        int[] large = {16, 1, 2, 16};
+        assertEquals(4, BlindOracle.pageFaults(2, large, Arrays.copyOf(tied, large.length)));
+        assertEquals(4, Combined.blindOracle(2, box(large), box(Arrays.copyOf(tied, large.length))));
+
+        // nine pages in bucket 0 of 16 make the map grow to 32 buckets, which splits them up
+        int[] crowded = new int[30];
+        for (int i = 0; i < crowded.length; i++) {
+            crowded[i] = 16 * (i % 11) + (i / 11);
+        }
+        int[] predictions = Arrays.copyOf(tied, crowded.length);
+        assertEquals(Combined.blindOracle(10, box(crowded), box(predictions)), BlindOracle.pageFaults(10, crowded, predictions));
+
+        // more pages than 3/4 of the buckets: the map grows to 32 and then 64 buckets
+        int[] growing = new int[40];
+        for (int i = 0; i < growing.length; i++) {
+            growing[i] = 1 + (i * 7) % 37;
+        }
+        assertEquals(Combined.blindOracle(30, box(growing), box(tied)), BlindOracle.pageFaults(30, growing, tied));
+    }
+
+    @Test
+    public void testFindPageToRemoveWithNonPositivePredictions() {
+        Map<Integer, Integer> cache = new HashMap<>();
+        cache.put(1, -5);
+        cache.put(2, 0);
+
+        assertEquals(2, Combined.findPageToRemove(cache), "Page with the largest prediction must be evicted");
+    }
+
+    @Test
+    public void testResetEmptiesCache() {
+        BlindOracle cache = new BlindOracle(2);
+        cache.onRequest(1, 3);
+        cache.onRequest(2, 4);
+        cache.reset();
+
+        assertEquals(0, cache.pageFaults());
+        assertEquals(true, cache.onRequest(1, 3), "Page must miss after reset");
+    }
+
+    private static List<Integer> box(int[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+}
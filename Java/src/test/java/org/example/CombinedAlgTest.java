@@ -0,0 +1,143 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CombinedAlgTest {
+
+    @Test
+    public void testCombined() {
+        int k = 3;
+        int[] sequence = {1, 2, 3, 4, 1, 2, 5, 1, 2, 3};
+        int[] hSeq = Combined.generateH(sequence);
+
+        assertEquals(10, CombinedAlg.pageFaults(k, sequence, hSeq, 0), "Combined PageFaults are wrong");
+    }
+
+    @Test
+    public void testMatchesCombinedAlgWithNoisyPredictions() {
+        SplittableRandom random = new SplittableRandom(4);
+        double[] thresholds = {-0.5, 0, 0.1, 0.3, 1};
+        for (int trial = 0; trial < 100; trial++) {
+            int k = 1 + random.nextInt(25);
+            int N = k + 1 + random.nextInt(100);
+            int[] seq = new int[2000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+            int[] hSeq = Combined.generateH(seq);
+            // coarse predictions so that ties are common
+            int[] predictions = new int[seq.length];
+            for (int i = 0; i < seq.length; i++) {
+                predictions[i] = random.nextBoolean() ? hSeq[i] : (i + random.nextInt(50)) / 10 * 10;
+            }
+            double thr = thresholds[random.nextInt(thresholds.length)];
+
+            int expected = Combined.combinedAlg(k, box(seq), box(predictions), thr);
+            assertEquals(expected, CombinedAlg.pageFaults(k, seq, predictions, thr), "Combined page faults for k:" + k + " thr:" + thr);
+        }
+    }
+
+    @Test
+    public void testMatchesCombinedAlgWithRepeatsInFirstK() {
+        // pages repeated among the first k requests occupy several slots of both shadows
+        SplittableRandom random = new SplittableRandom(5);
+        for (int trial = 0; trial < 100; trial++) {
+            int k = 2 + random.nextInt(10);
+            int N = 1 + random.nextInt(2 * k);
+            int[] seq = new int[300];
+            for (int i = 0; i < seq.length; i++) {
+                seq[i] = 1 + random.nextInt(N);
+            }
+            int[] predictions = new int[seq.length];
+            for (int i = 0; i < seq.length; i++) {
+                predictions[i] = i + 1 + random.nextInt(8);
+            }
+            double thr = random.nextDouble() - 0.2;
+
+            int expected = Combined.combinedAlg(k, box(seq), box(predictions), thr);
+            assertEquals(expected, CombinedAlg.pageFaults(k, seq, predictions, thr), "Combined page faults for k:" + k + " N:" + N);
+        }
+    }
+
+    @Test
+    public void testLazySwitchCostsLessThanK() {
+        int k = 20;
+        for (long seed = 0; seed < 5; seed++) {
+            int[] seq = new int[10_000];
+            Combined.generateRandomSequence(k, 100, 0.5, seed, seq);
+            int[] noisy = Combined.addNoise(Combined.generateH(seq), 0.5, 200, new SplittableRandom(seed));
+            CombinedAlg eager = new CombinedAlg(k, 0.05);
+            CombinedAlg lazy = CombinedAlg.lazy(k, 0.05, 0);
+            PagingPolicy.pageFaults(eager, seq, noisy);
+            int faults = 0;
+            for (int i = 0; i < seq.length; i++) {
+                if (lazy.onRequest(seq[i], noisy[i])) faults++;
+            }
+
+            // without a dwell time the switches happen at the same requests
+            assertTrue(lazy.isLazy());
+            assertFalse(eager.isLazy());
+            assertEquals(eager.switches(), lazy.switches());
+            assertEquals(faults, lazy.pageFaults());
+            assertTrue(lazy.reconciliationFaults() <= k * lazy.switches(), "seed " + seed);
+            assertTrue(lazy.pageFaults() <= eager.pageFaults(), "seed " + seed);
+        }
+    }
+
+    @Test
+    public void testLazyWithoutSwitchesIsTheFollowedShadow() {
+        int k = 10;
+        int[] seq = new int[5000];
+        Combined.generateRandomSequence(k, 60, 0.5, 3L, seq);
+        int[] noisy = Combined.addNoise(Combined.generateH(seq), 1.0, 5000, new SplittableRandom(3));
+        // a threshold no fault ratio reaches keeps both on LRU
+        assertEquals(CombinedAlg.pageFaults(k, seq, noisy, 1e9), CombinedAlg.lazyPageFaults(k, seq, noisy, 1e9, 0));
+    }
+
+    @Test
+    public void testDwellTimeStopsThrashing() {
+        // uniform requests and random predictions: both shadows fault alike and, with a zero
+        // threshold, the eager mode switches whenever one gets ahead of the other
+        int k = 5;
+        int n = 20_000;
+        SplittableRandom random = new SplittableRandom(8);
+        int[] seq = random.ints(n, 0, 40).toArray();
+        int[] noisy = new int[n];
+        for (int i = 0; i < n; i++) {
+            noisy[i] = i + 1 + random.nextInt(100);
+        }
+        int dwell = 500;
+        CombinedAlg eager = new CombinedAlg(k, 0.0);
+        CombinedAlg lazy = CombinedAlg.lazy(k, 0.0, dwell);
+        List<Integer> eagerSwitches = new ArrayList<>();
+        List<Integer> lazySwitches = new ArrayList<>();
+        eager.setSwitchListener((request, toLRU) -> eagerSwitches.add(request));
+        lazy.setSwitchListener((request, toLRU) -> lazySwitches.add(request));
+        PagingPolicy.pageFaults(eager, seq, noisy);
+        PagingPolicy.pageFaults(lazy, seq, noisy);
+
+        assertTrue(minimumGap(eagerSwitches) < dwell, "eager " + eagerSwitches);
+        assertTrue(minimumGap(lazySwitches) >= dwell, "lazy " + lazySwitches);
+        assertTrue(lazy.switches() > 0);
+        lazy.reset();
+        assertEquals(0, lazy.reconciliationFaults());
+    }
+
+    private static int minimumGap(List<Integer> switches) {
+        int gap = Integer.MAX_VALUE;
+        for (int j = 1; j < switches.size(); j++) {
+            gap = Math.min(gap, switches.get(j) - switches.get(j - 1));
+        }
+        return gap;
+    }
+
+    private static List<Integer> box(int[] values) {
+        return Arrays.stream(values).boxed().toList();
+    }
+}
@@ -2,6 +2,7 @@ package org.example;
 import org.junit.jupiter.api.Test;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -22,6 +23,26 @@ public class CombinedTest {
         }
     }
 
+    @Test
+    public void testGenerateRandomSequenceSeeded() {
+        int k = 4;
+        int N = 12;
+        double e = 0.3;
+
+        int[] first = new int[500];
+        int[] second = new int[500];
+        Combined.generateRandomSequence(k, N, e, 42L, first);
+        Combined.generateRandomSequence(k, N, e, 42L, second);
+
+        assertArrayEquals(first, second, "Same seed must give the same sequence");
+        for (int i = 0; i < first.length; i++) {
+            if (i < k) {
+                assertEquals(i + 1, first[i], "First k elements are not from 1 to k");
+            }
+            assertTrue(1 <= first[i] && first[i] <= N, "Page out of range 1..N");
+        }
+    }
+
     @Test
     public void testGenerateH() {
         List<Integer> seq = List.of(1, 2, 3, 4, 5, 1, 2, 3, 4, 1);
@@ -34,6 +55,15 @@ public class CombinedTest {
         assertEquals(expectedHSeq, hSeq, "Generated hSeq values are incorrect");
     }
 
+    @Test
+    public void testGenerateHArraySparsePages() {
+        // page ids far apart force the hashed last-seen table
+        int[] seq = {7, -3, 1_000_000_000, 7, -3, 7};
+        int[] hSeq = Combined.generateH(seq);
+
+        assertArrayEquals(new int[]{4, 5, 7, 6, 7, 7}, hSeq, "Generated hSeq values are incorrect");
+    }
+
 
     @Test
     public void testAddNoise() {
@@ -0,0 +1,116 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentedPolicyTest {
+
+    private static int[] sequence(int k, long seed) {
+        int[] seq = new int[10_000];
+        Combined.generateRandomSequence(k, 10 * k, 0.5, seed, seq);
+        return seq;
+    }
+
+    @Test
+    public void testCountsMatchTheEngine() {
+        int k = 10;
+        int[] seq = sequence(k, 5L);
+        InstrumentedPolicy lru = new InstrumentedPolicy(new LRU(k), 1000, true);
+
+        int faults = PagingPolicy.pageFaults(lru, seq, null);
+
+        assertEquals(LRU.pageFaults(k, seq), faults);
+        assertEquals(faults, lru.getMisses());
+        assertEquals(seq.length - faults, lru.getHits());
+        assertEquals(faults - k, lru.getEvictions());
+        assertEquals(seq.length, lru.latency().count());
+        double[] rates = lru.getRecentWindowFaultRates();
+        assertEquals(10, rates.length);
+        double total = 0;
+        for (double rate : rates) total += rate * 1000;
+        assertEquals(faults, total, 1e-6);
+
+        lru.reset();
+        assertEquals(0, lru.getRequests());
+        assertEquals(0, lru.getRecentWindowFaultRates().length);
+    }
+
+    @Test
+    public void testRecordsSwitchesOfCombined() {
+        int k = 10;
+        int[] seq = sequence(k, 9L);
+        int[] noisy = Combined.addNoise(Combined.generateH(seq), 0.9, 500, new SplittableRandom(9));
+        List<Integer> expected = new ArrayList<>();
+        CombinedAlg reference = new CombinedAlg(k, 0.05);
+        reference.setSwitchListener((request, toLRU) -> expected.add(request));
+        PagingPolicy.pageFaults(reference, seq, noisy);
+
+        InstrumentedPolicy combined = new InstrumentedPolicy(new CombinedAlg(k, 0.05), 100, false);
+        PagingPolicy.pageFaults(combined, seq, noisy);
+
+        assertTrue(reference.switches() > 0, "Trace should make the combined cache switch");
+        assertEquals(reference.switches(), combined.getSwitches());
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), combined.getRecentSwitches());
+        assertEquals(reference.pageFaults(), combined.getPageFaults());
+        assertEquals(0, combined.getLatencyP99Nanos());
+    }
+
+    @Test
+    public void testEvictionsFollowTheRealCache() {
+        int[] seq = {1, 1, 2, 3};
+        int[] h = Combined.generateH(seq);
+        // the eager cache fills a slot per request, so the repeated 1 takes a slot of its own
+        InstrumentedPolicy eager = new InstrumentedPolicy(new CombinedAlg(2, 0.5), 10, false);
+        InstrumentedPolicy lazy = new InstrumentedPolicy(CombinedAlg.lazy(2, 0.5, 2), 10, false);
+        PagingPolicy.pageFaults(eager, seq, h);
+        PagingPolicy.pageFaults(lazy, seq, h);
+
+        assertEquals(4, eager.getMisses());
+        assertEquals(2, eager.getEvictions());
+        assertEquals(3, lazy.getMisses());
+        assertEquals(1, lazy.getEvictions());
+        assertEquals(2, lazy.cached());
+    }
+
+    @Test
+    public void testJsonAndJmx() throws Exception {
+        InstrumentedPolicy fifo = new InstrumentedPolicy(new FIFO(3), 2, true);
+        for (int page : new int[]{1, 2, 1, 3, 4, 1}) {
+            fifo.onRequest(page, 0);
+        }
+
+        String json = fifo.toJson();
+        assertTrue(json.startsWith("{\"policy\":\"FIFO\",\"requests\":6,\"hits\":1,\"misses\":5,\"evictions\":2,"), json);
+        assertTrue(json.contains("\"windowFaultRates\":[1.000000,0.500000,1.000000]"), json);
+        assertTrue(json.contains("\"latencyNanos\":{\"count\":6,"), json);
+
+        fifo.register("fifo-test");
+        ObjectName name = new ObjectName("org.example:type=PagingPolicy,name=\"fifo-test\"");
+        assertEquals(6L, ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Requests"));
+        fifo.unregister();
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    public void testHistogramPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(100_000, histogram.max());
+        assertEquals(50_000.5, histogram.mean(), 1e-9);
+        long p50 = histogram.percentile(50);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 33 / 32, "p50 " + p50);
+        assertEquals(100_000, histogram.percentile(100));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.bucket(Long.MAX_VALUE)));
+    }
+}
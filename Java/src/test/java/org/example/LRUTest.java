@@ -0,0 +1,41 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LRUTest {
+
+    @Test
+    public void testLRU() {
+        int k = 4;
+        int[] sequence = {1, 2, 3, 4, 2, 1, 5, 6, 2, 1, 2, 3, 7, 6, 3, 2, 1, 2, 3, 6};
+
+        assertEquals(10, LRU.pageFaults(k, sequence), "# pageFaults for k:" + k);
+    }
+
+    @Test
+    public void testMatchesLinkedHashMapLRU() {
+        SplittableRandom random = new SplittableRandom(3);
+        for (int trial = 0; trial < 50; trial++) {
+            int k = 1 + random.nextInt(40);
+            int N = k + 1 + random.nextInt(300);
+            int[] seq = new int[3000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+
+            int expected = Combined.LRU(k, Arrays.stream(seq).boxed().toList());
+            assertEquals(expected, LRU.pageFaults(k, seq), "LRU page faults for k:" + k + " N:" + N);
+        }
+    }
+
+    @Test
+    public void testSparsePages() {
+        // page ids far apart use the hashed page table
+        int[] sequence = {1 << 30, -7, 1 << 30, 12345678, -7, 1 << 30, 99};
+
+        int expected = Combined.LRU(2, Arrays.stream(sequence).boxed().toList());
+        assertEquals(expected, LRU.pageFaults(2, sequence), "# pageFaults for sparse pages");
+    }
+}
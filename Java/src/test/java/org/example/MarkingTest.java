@@ -0,0 +1,48 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MarkingTest {
+
+    @Test
+    public void testSingleSlotIsLRU() {
+        int[] seq = {1, 2, 2, 3, 1, 1, 4, 2};
+
+        assertEquals(LRU.pageFaults(1, seq), Marking.pageFaults(1, seq, new SplittableRandom(1)));
+    }
+
+    @Test
+    public void testCyclicTrace() {
+        // k + 1 pages in a cycle: every phase of k distinct pages faults at least once
+        int k = 4;
+        int[] seq = new int[500];
+        for (int i = 0; i < seq.length; i++) {
+            seq[i] = i % (k + 1);
+        }
+        Marking marking = new Marking(k, new SplittableRandom(3));
+        int faults = PagingPolicy.pageFaults(marking, seq, null);
+
+        assertTrue(faults >= marking.phases(), "At least one fault per phase");
+        assertTrue(faults < LRU.pageFaults(k, seq), "LRU faults on every request of a cycle");
+    }
+
+    @Test
+    public void testNeverBeatsOPTAndIsReproducible() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int trial = 0; trial < 20; trial++) {
+            int k = 1 + random.nextInt(20);
+            int N = k + 1 + random.nextInt(200);
+            int[] seq = new int[3000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+            long seed = random.nextLong();
+
+            int faults = Marking.pageFaults(k, seq, new SplittableRandom(seed));
+            assertTrue(faults >= BlindOracle.pageFaults(k, seq, Combined.generateH(seq)), "Marking beat OPT");
+            assertEquals(faults, Marking.pageFaults(k, seq, new SplittableRandom(seed)));
+        }
+    }
+}
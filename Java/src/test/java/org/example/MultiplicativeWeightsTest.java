@@ -0,0 +1,53 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultiplicativeWeightsTest {
+
+    @Test
+    public void testSingleExpertIsFollowed() {
+        int k = 5;
+        int[] seq = new int[3000];
+        Combined.generateRandomSequence(k, 30, 0.5, 2L, seq);
+        MultiplicativeWeights mw = new MultiplicativeWeights(k, 0.1, new SplittableRandom(1), new LRU(k));
+
+        assertEquals(LRU.pageFaults(k, seq), PagingPolicy.pageFaults(mw, seq, null));
+        assertEquals(0, mw.switches());
+    }
+
+    @Test
+    public void testLearnsTheBetterExpert() {
+        // a loop over k + 1 pages: LRU faults on every request, OPT about once every k
+        int k = 10;
+        int[] seq = new int[20_000];
+        for (int i = 0; i < seq.length; i++) {
+            seq[i] = i % (k + 1);
+        }
+        int[] h = Combined.generateH(seq);
+        MultiplicativeWeights mw = new MultiplicativeWeights(k, 0.1, new SplittableRandom(4), new LRU(k), new BlindOracle(k));
+
+        int faults = PagingPolicy.pageFaults(mw, seq, h);
+
+        assertEquals(1, mw.following());
+        assertEquals(seq.length, mw.expertFaults(0));
+        assertTrue(faults < seq.length / 4, "faults " + faults);
+    }
+
+    @Test
+    public void testDefaultExpertsAndDeterminism() {
+        int k = 10;
+        int[] seq = new int[5000];
+        Combined.generateRandomSequence(k, 60, 0.5, 6L, seq);
+        int[] noisy = Combined.addNoise(Combined.generateH(seq), 0.3, 100, new SplittableRandom(6));
+
+        int first = MultiplicativeWeights.pageFaults(k, seq, noisy, 0.1, new SplittableRandom(9));
+        assertEquals(first, MultiplicativeWeights.pageFaults(k, seq, noisy, 0.1, new SplittableRandom(9)));
+        assertEquals(first, PagingPolicy.pageFaults(PolicyType.MULTIPLICATIVE_WEIGHTS.create(k, 0.1, new SplittableRandom(9)), seq, noisy));
+        assertThrows(IllegalArgumentException.class, () -> new MultiplicativeWeights(k, 1.5, new SplittableRandom(1)));
+    }
+}
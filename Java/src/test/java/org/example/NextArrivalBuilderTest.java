@@ -0,0 +1,77 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NextArrivalBuilderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testMatchesGenerateH() throws IOException {
+        int[] pages = new int[10000];
+        Combined.generateRandomSequence(10, 100, 0.6, 5L, pages);
+        Path path = directory.resolve("fixed.trace");
+        TraceFile.write(path, pages, null, false);
+
+        NextArrivalBuilder builder = new NextArrivalBuilder(1 << 16, 1000);
+        TraceFile trace = builder.build(TraceFile.open(path));
+
+        assertEquals(1, builder.partitions());
+        assertArrayEquals(Combined.generateH(pages), nextArrivals(trace));
+    }
+
+    @Test
+    public void testSmallTableSplitsIntoPartitions() throws IOException {
+        int[] pages = new int[5000];
+        Combined.generateRandomSequence(20, 300, 0.5, 9L, pages);
+        pages[17] = Integer.MIN_VALUE;
+        pages[4000] = Integer.MAX_VALUE;
+        Path path = directory.resolve("varint.trace");
+        TraceFile.write(path, pages, null, true);
+
+        // 8 slots hold 4 pages, far fewer than the 300 of the trace; odd sized chunks
+        NextArrivalBuilder builder = new NextArrivalBuilder(64, 37);
+        builder.build(TraceFile.open(path));
+
+        assertTrue(builder.partitions() >= 64, "300 pages need at least 75 partitions of 4");
+        TraceFile reopened = TraceFile.open(path);
+        assertTrue(reopened.hasNextArrival(), "The sidecar is attached when the trace is opened");
+        assertArrayEquals(Combined.generateH(pages), nextArrivals(reopened));
+    }
+
+    @Test
+    public void testOffHeapPageTableIsBounded() {
+        OffHeapPageTable table = new OffHeapPageTable(64);
+
+        assertEquals(4, table.capacity());
+        for (int page = 0; page < 4; page++) {
+            assertTrue(table.put(page * 1_000_003, page));
+        }
+        assertTrue(table.put(0, 42), "Updating a present page never fails");
+        assertFalse(table.put(-5, 1), "A fifth page does not fit");
+        assertEquals(42, table.get(0));
+        assertEquals(OffHeapPageTable.ABSENT, table.get(-5));
+        table.clear();
+        assertEquals(OffHeapPageTable.ABSENT, table.get(0));
+    }
+
+    private static int[] nextArrivals(TraceFile trace) throws IOException {
+        int[] h = new int[(int) trace.length()];
+        try (TraceFile.Cursor cursor = trace.cursor()) {
+            for (int i = 0; cursor.hasNext(); i++) {
+                cursor.nextPage();
+                h[i] = cursor.nextArrival();
+            }
+        }
+        return h;
+    }
+}
@@ -0,0 +1,51 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NoiseStreamTest {
+
+    @Test
+    public void testPredictionsStayInWindow() {
+        int[] hSeq = Combined.generateH(new int[]{1, 2, 3, 1, 2, 4, 1, 3, 5, 2});
+        int w = 4;
+        NoiseStream noise = new NoiseStream(hSeq, 1.0, w, new SplittableRandom(3));
+
+        for (int i = 0; i < hSeq.length; i++) {
+            int predicted = noise.next();
+            int lowerBound = Math.max(i + 1, hSeq[i] - Math.floorDiv(w, 2));
+            assertTrue(lowerBound <= predicted && predicted <= lowerBound + w, "Prediction " + i + " out of range");
+        }
+        assertFalse(noise.hasNext());
+    }
+
+    @Test
+    public void testNoNoiseKeepsTrueValues() {
+        int[] hSeq = {4, 5, 7, 6, 7, 7};
+        assertArrayEquals(hSeq, Combined.addNoise(hSeq, -1.0, 10, new SplittableRandom(1)));
+    }
+
+    @Test
+    public void testStreamMatchesFilledArray() {
+        int[] seq = new int[2000];
+        Combined.generateRandomSequence(10, 100, 0.5, 7L, seq);
+        int[] hSeq = Combined.generateH(seq);
+        int[] filled = Combined.addNoise(hSeq, 0.5, 50, new SplittableRandom(42));
+
+        NoiseStream noise = new NoiseStream(hSeq, 0.5, 50, new SplittableRandom(42));
+        for (int i = 0; i < hSeq.length; i++) {
+            assertEquals(filled[i], noise.next(), "Prediction " + i);
+        }
+    }
+
+    @Test
+    public void testNegativeWindowIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new NoiseStream(new int[]{1}, 0.5, -1, new SplittableRandom(1)));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapLongTableTest {
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        OffHeapLongTable table = new OffHeapLongTable(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 200_000; i++) {
+            // sparse 64-bit keys from a small pool, so keys repeat and get removed
+            long key = random.nextLong(5000) * 0x9E3779B97F4A7C15L;
+            int op = random.nextInt(3);
+            if (op == 0) {
+                table.remove(key);
+                expected.remove(key);
+            } else if (op == 1) {
+                table.put(key, i);
+                expected.put(key, i);
+            } else {
+                assertEquals((int) expected.getOrDefault(key, OffHeapLongTable.ABSENT), table.get(key));
+            }
+        }
+        assertEquals(expected.size(), table.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), table.get(entry.getKey()));
+        }
+        assertTrue(table.slots() >= 2 * table.size(), "Table did not grow");
+
+        table.clear();
+        assertEquals(0, table.size());
+        assertEquals(OffHeapLongTable.ABSENT, table.get(expected.keySet().iterator().next()));
+    }
+
+    @Test
+    public void testFullTableFailsAtHalfLoad() {
+        OffHeapLongTable table = new OffHeapLongTable(4, 64);
+        for (int i = 0; i < 32; i++) {
+            table.put(i * 0x9E3779B97F4A7C15L, i);
+        }
+        assertEquals(64, table.slots());
+        // existing keys can still be replaced and removed, new ones are refused
+        table.put(0, 99);
+        assertEquals(99, table.get(0));
+        IllegalStateException full = assertThrows(IllegalStateException.class, () -> table.put(-1L, 32));
+        assertTrue(full.getMessage().contains("32 entries"), full.getMessage());
+        table.remove(0);
+        table.put(-1L, 32);
+        assertEquals(32, table.get(-1L));
+        assertEquals(1L << 31, OffHeapLongTable.MAX_SLOTS >>> 1, "Room for every int page");
+    }
+
+    @Test
+    public void testEnginesGiveSameFaultsOffHeap() {
+        int k = 20;
+        int[] seq = new int[20_000];
+        Combined.generateRandomSequence(k, 500, 0.4, 21L, seq);
+        int[] h = Combined.generateH(seq);
+
+        PageIndex slots = PageIndex.offHeap(k);
+        assertTrue(slots.isOffHeap());
+        assertEquals(LRU.pageFaults(k, seq), PagingPolicy.pageFaults(new LRU(k, slots), seq, null));
+        assertEquals(BlindOracle.pageFaults(k, seq, h),
+                PagingPolicy.pageFaults(new BlindOracle(k, PageIndex.offHeap(k)), seq, h));
+        assertTrue(PageIndex.hashed(PageIndex.OFF_HEAP_THRESHOLD).isOffHeap());
+        assertFalse(PageIndex.hashed(k).isOffHeap());
+    }
+
+    @Test
+    public void testPageIdsNumbersIdsInFirstSeenOrder() {
+        PageIds ids = new PageIds(2);
+        long[] trace = {Long.MAX_VALUE, 7L << 40, -1L, Long.MAX_VALUE, 7L << 40, 0L};
+
+        int[] pages = new int[trace.length];
+        for (int i = 0; i < trace.length; i++) {
+            pages[i] = ids.intern(trace[i]);
+        }
+
+        assertEquals(4, ids.size());
+        assertEquals(List.of(0, 1, 2, 0, 1, 3), Arrays.stream(pages).boxed().toList());
+        assertEquals(2, ids.get(-1L));
+        assertEquals(PageIds.ABSENT, ids.get(42L));
+    }
+}
@@ -0,0 +1,68 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OnlineSimulatorTest {
+
+    @Test
+    public void testStreamingMatchesWholeSequence() {
+        int k = 10;
+        int[] seq = new int[5000];
+        Combined.generateRandomSequence(k, 100, 0.6, 4L, seq);
+        int[] noisy = Combined.addNoise(Combined.generateH(seq), 0.5, 100, new SplittableRandom(4));
+
+        OnlineSimulator simulator = OnlineSimulator.combined(k, 0.1, 0);
+        int faults = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (simulator.request(seq[i], noisy[i])) faults++;
+        }
+        // the rest in uneven batches
+        for (int from = 1000; from < seq.length; from += 777) {
+            faults += simulator.request(seq, noisy, from, Math.min(from + 777, seq.length));
+        }
+
+        assertEquals(seq.length, simulator.requests());
+        assertArrayEquals(new int[]{
+                CombinedAlg.pageFaults(k, seq, noisy, 0.1),
+                BlindOracle.pageFaults(k, seq, noisy),
+                LRU.pageFaults(k, seq)}, simulator.pageFaults());
+        // switch costs count in pageFaults, not in the faults of single requests
+        assertTrue(faults <= simulator.pageFaults(0));
+
+        OnlineSimulator lru = new OnlineSimulator(0, new LRU(k));
+        assertEquals(LRU.pageFaults(k, seq), lru.request(seq, noisy, 0, seq.length));
+    }
+
+    @Test
+    public void testLookaheadClampsPredictions() {
+        int k = 5;
+        int lookahead = 20;
+        int[] seq = new int[3000];
+        Combined.generateRandomSequence(k, 50, 0.5, 8L, seq);
+        int[] h = Combined.generateH(seq);
+        int[] clamped = new int[h.length];
+        for (int t = 0; t < h.length; t++) {
+            clamped[t] = Math.min(h[t], t + 1 + lookahead);
+        }
+
+        OnlineSimulator simulator = new OnlineSimulator(lookahead, new BlindOracle(k));
+        simulator.request(seq, h, 0, seq.length);
+
+        assertEquals(BlindOracle.pageFaults(k, seq, clamped), simulator.pageFaults(0));
+        simulator.reset();
+        assertEquals(0, simulator.requests());
+        assertEquals(0.0, simulator.faultRate(0));
+    }
+
+    @Test
+    public void testNeedsAnEngine() {
+        assertThrows(IllegalArgumentException.class, () -> new OnlineSimulator(0));
+    }
+
+}
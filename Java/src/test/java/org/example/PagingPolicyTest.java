@@ -0,0 +1,208 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PagingPolicyTest {
+
+    @Test
+    public void testPortedEnginesThroughInterface() {
+        int k = 5;
+        int[] seq = trace(k, 50, 2000, 1);
+        int[] hSeq = Combined.generateH(seq);
+        int[] noisy = Combined.addNoise(hSeq, 0.5, 100, new SplittableRandom(1));
+
+        assertEquals(BlindOracle.pageFaults(k, seq, noisy), PagingPolicy.pageFaults(new BlindOracle(k), seq, noisy));
+        assertEquals(LRU.pageFaults(k, seq), PagingPolicy.pageFaults(new LRU(k), seq, null));
+        assertEquals(CombinedAlg.pageFaults(k, seq, noisy, 0.1), PagingPolicy.pageFaults(new CombinedAlg(k, 0.1), seq, noisy));
+    }
+
+    @Test
+    public void testResetStartsOver() {
+        int k = 4;
+        int[] seq = trace(k, 40, 1000, 2);
+        int[] hSeq = Combined.generateH(seq);
+        for (PagingPolicy policy : List.of(new BlindOracle(k), new LRU(k), new CombinedAlg(k, 0.1), new FIFO(k),
+                new Clock(k), new LFU(k), new ARC(k))) {
+            int first = PagingPolicy.pageFaults(policy, seq, hSeq);
+            policy.reset();
+            assertEquals(first, PagingPolicy.pageFaults(policy, seq, hSeq), policy.getClass().getSimpleName());
+        }
+    }
+
+    @Test
+    public void testFIFO() {
+        // Belady's anomaly: 4 frames fault more than 3
+        int[] seq = {1, 2, 3, 4, 1, 2, 5, 1, 2, 3, 4, 5};
+
+        assertEquals(9, FIFO.pageFaults(3, seq));
+        assertEquals(10, FIFO.pageFaults(4, seq));
+    }
+
+    @Test
+    public void testClock() {
+        int[] seq = {1, 2, 3, 2, 4, 1, 5, 2, 1, 3};
+
+        assertEquals(clockReference(3, seq), Clock.pageFaults(3, seq));
+    }
+
+    @Test
+    public void testLFU() {
+        // 1 is hit twice, so 2 and then 3 are evicted before it
+        int[] seq = {1, 1, 1, 2, 3, 4, 1, 2, 5, 1};
+
+        assertEquals(6, LFU.pageFaults(2, seq));
+    }
+
+    @Test
+    public void testLFUCountsDoNotNeedABucketEach() {
+        // a hot page hit millions of times next to pages with a count each; only the live counts are kept
+        LFU lfu = new LFU(4);
+        for (int page = 1; page <= 3; page++) {
+            for (int hit = 0; hit < page; hit++) {
+                lfu.onRequest(page, 0);
+            }
+        }
+        for (int hit = 0; hit < 5_000_000; hit++) {
+            lfu.onRequest(9, 0);
+        }
+        assertEquals(4, lfu.pageFaults());
+
+        // 1 goes first, then every newcomer has the fewest hits and replaces the one before it
+        lfu.onRequest(5, 0);
+        lfu.onRequest(6, 0);
+        lfu.onRequest(7, 0);
+        assertEquals(false, lfu.onRequest(3, 0));
+        assertEquals(false, lfu.onRequest(9, 0));
+        assertEquals(true, lfu.onRequest(1, 0));
+        assertEquals(8, lfu.pageFaults());
+    }
+
+    @Test
+    public void testMatchesReferenceImplementations() {
+        SplittableRandom random = new SplittableRandom(5);
+        for (int trial = 0; trial < 30; trial++) {
+            int k = 1 + random.nextInt(20);
+            int N = k + 1 + random.nextInt(200);
+            int[] seq = trace(k, N, 3000, random.nextLong());
+
+            assertEquals(fifoReference(k, seq), FIFO.pageFaults(k, seq), "FIFO k:" + k + " N:" + N);
+            assertEquals(clockReference(k, seq), Clock.pageFaults(k, seq), "CLOCK k:" + k + " N:" + N);
+            assertEquals(lfuReference(k, seq), LFU.pageFaults(k, seq), "LFU k:" + k + " N:" + N);
+        }
+    }
+
+    @Test
+    public void testPolicyTypes() {
+        assertEquals(PolicyType.MARKING, PolicyType.parse(" marking "));
+        assertEquals(PolicyType.ROBUST_MARKING, PolicyType.parse("robust_marking"));
+        assertEquals(PolicyType.ROBUST_MARKING, PolicyType.parse("Robust Marking"));
+        assertEquals(PolicyType.MULTIPLICATIVE_WEIGHTS, PolicyType.parse(" multiplicative weights"));
+        assertThrows(IllegalArgumentException.class, () -> PolicyType.parse("robust-marking"));
+        assertEquals("arc", PolicyType.ARC.column());
+        int[] seq = trace(5, 50, 500, 3);
+        assertEquals(FIFO.pageFaults(5, seq), PagingPolicy.pageFaults(PolicyType.FIFO.create(5, 0.1, null), seq, null));
+        assertEquals(EnumSet.of(PolicyType.PREDICTIVE_MARKING, PolicyType.ROBUST_MARKING, PolicyType.MULTIPLICATIVE_WEIGHTS,
+                PolicyType.LAZY_COMBINED), matching(PolicyType::usesPredictions));
+        assertEquals(EnumSet.of(PolicyType.MARKING, PolicyType.ROBUST_MARKING, PolicyType.MULTIPLICATIVE_WEIGHTS),
+                matching(PolicyType::isRandomized));
+    }
+
+    private static Set<PolicyType> matching(Predicate<PolicyType> property) {
+        Set<PolicyType> types = EnumSet.noneOf(PolicyType.class);
+        for (PolicyType type : PolicyType.values()) {
+            if (property.test(type)) {
+                types.add(type);
+            }
+        }
+        return types;
+    }
+
+    private static int[] trace(int k, int N, int n, long seed) {
+        int[] seq = new int[n];
+        Combined.generateRandomSequence(k, N, 0.6, seed, seq);
+        return seq;
+    }
+
+    private static int fifoReference(int k, int[] seq) {
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        Set<Integer> cache = new HashSet<>();
+        int faults = 0;
+        for (int page : seq) {
+            if (cache.contains(page)) continue;
+            faults++;
+            if (cache.size() == k) cache.remove(queue.poll());
+            queue.add(page);
+            cache.add(page);
+        }
+        return faults;
+    }
+
+    private static int clockReference(int k, int[] seq) {
+        List<Integer> frames = new ArrayList<>();
+        List<Boolean> bits = new ArrayList<>();
+        int hand = 0;
+        int faults = 0;
+        for (int page : seq) {
+            int at = frames.indexOf(page);
+            if (at >= 0) {
+                bits.set(at, true);
+                continue;
+            }
+            faults++;
+            if (frames.size() < k) {
+                frames.add(page);
+                bits.add(true);
+                continue;
+            }
+            while (bits.get(hand)) {
+                bits.set(hand, false);
+                hand = (hand + 1) % k;
+            }
+            frames.set(hand, page);
+            bits.set(hand, true);
+            hand = (hand + 1) % k;
+        }
+        return faults;
+    }
+
+    // evicts the smallest count, the least recently promoted among equal counts
+    private static int lfuReference(int k, int[] seq) {
+        Map<Integer, Integer> count = new HashMap<>();
+        Map<Integer, Integer> promoted = new HashMap<>();
+        int faults = 0;
+        for (int t = 0; t < seq.length; t++) {
+            int page = seq[t];
+            if (count.containsKey(page)) {
+                count.merge(page, 1, Integer::sum);
+                promoted.put(page, t);
+                continue;
+            }
+            faults++;
+            if (count.size() == k) {
+                int victim = count.keySet().stream()
+                        .min((a, b) -> count.get(a).equals(count.get(b))
+                                ? Integer.compare(promoted.get(a), promoted.get(b))
+                                : Integer.compare(count.get(a), count.get(b)))
+                        .orElseThrow();
+                count.remove(victim);
+                promoted.remove(victim);
+            }
+            count.put(page, 1);
+            promoted.put(page, t);
+        }
+        return faults;
+    }
+}
@@ -0,0 +1,120 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PredictiveMarkingTest {
+
+    // straightforward Predictive Marker over collections
+    private static int reference(int k, int[] seq, int[] hSeq) {
+        List<Integer> cache = new ArrayList<>();
+        Set<Integer> marked = new HashSet<>();
+        Map<Integer, Integer> prediction = new HashMap<>();
+        int faults = 0;
+        for (int i = 0; i < seq.length; i++) {
+            int page = seq[i];
+            if (!cache.contains(page)) {
+                faults++;
+                if (cache.size() == k) {
+                    if (marked.size() == k) {
+                        marked.clear();
+                    }
+                    int victim = -1;
+                    for (int p : cache) {
+                        if (marked.contains(p)) continue;
+                        if (victim == -1 || prediction.get(p) > prediction.get(victim)
+                                || (prediction.get(p).equals(prediction.get(victim)) && p < victim)) {
+                            victim = p;
+                        }
+                    }
+                    cache.remove(Integer.valueOf(victim));
+                }
+                cache.add(page);
+            }
+            marked.add(page);
+            prediction.put(page, hSeq[i]);
+        }
+        return faults;
+    }
+
+    @Test
+    public void testMatchesReference() {
+        for (int k : new int[]{1, 4, 10}) {
+            for (long seed = 0; seed < 4; seed++) {
+                int[] seq = new int[2000];
+                Combined.generateRandomSequence(k, 3 * k + 2, 0.5, seed, seq);
+                int[] noisy = Combined.addNoise(Combined.generateH(seq), 0.5, 50, new SplittableRandom(seed));
+                assertEquals(reference(k, seq, noisy), PredictiveMarking.pageFaults(k, seq, noisy, null),
+                        "k=" + k + " seed=" + seed);
+            }
+        }
+    }
+
+    @Test
+    public void testBothVersionsAreMarkingAlgorithms() {
+        int k = 8;
+        int[] seq = new int[5000];
+        Combined.generateRandomSequence(k, 40, 0.4, 17L, seq);
+        int[] h = Combined.generateH(seq);
+        // predictions that always point the wrong way
+        int[] reversed = new int[h.length];
+        for (int i = 0; i < h.length; i++) {
+            reversed[i] = seq.length + 2 - h[i] + i;
+        }
+
+        Marking marking = new Marking(k, new SplittableRandom(1));
+        PagingPolicy.pageFaults(marking, seq, null);
+        for (int[] predictions : new int[][]{h, reversed}) {
+            PredictiveMarking plain = new PredictiveMarking(k);
+            PredictiveMarking robust = new PredictiveMarking(k, new SplittableRandom(2));
+            PagingPolicy.pageFaults(plain, seq, predictions);
+            PagingPolicy.pageFaults(robust, seq, predictions);
+
+            // phases only depend on the sequence, and a marking algorithm faults at most k times per phase
+            assertEquals(marking.phases(), plain.phases());
+            assertEquals(marking.phases(), robust.phases());
+            assertTrue(plain.pageFaults() <= k * plain.phases());
+            assertTrue(robust.pageFaults() <= k * robust.phases());
+        }
+        assertTrue(PredictiveMarking.pageFaults(k, seq, h, null) <= PredictiveMarking.pageFaults(k, seq, reversed, null),
+                "True predictions should not do worse than reversed ones");
+    }
+
+    @Test
+    public void testRobustVersionCapsAdversarialChains() {
+        // k + 1 pages in a cycle, with predictions that put the page requested next furthest away
+        int k = 32;
+        int[] seq = new int[(k + 1) * 200];
+        int[] adversarial = new int[seq.length];
+        for (int i = 0; i < seq.length; i++) {
+            seq[i] = i % (k + 1) + 1;
+            adversarial[i] = 2 * seq.length - i;
+        }
+
+        int plain = PredictiveMarking.pageFaults(k, seq, adversarial, null);
+        int robust = PredictiveMarking.pageFaults(k, seq, adversarial, new SplittableRandom(5));
+
+        assertEquals(seq.length, plain, "Following the predictions evicts every page just before its request");
+        assertTrue(robust < plain / 2, "Chains beyond H_k must fall back to random victims, got " + robust);
+    }
+
+    @Test
+    public void testResetStartsOver() {
+        int[] seq = {1, 2, 3, 1, 4, 2, 5, 1, 3};
+        int[] h = Combined.generateH(seq);
+        PredictiveMarking robust = new PredictiveMarking(2, new SplittableRandom(3));
+        int first = PagingPolicy.pageFaults(robust, seq, h);
+        robust.reset();
+        assertEquals(0, robust.pageFaults());
+        assertEquals(first, PagingPolicy.pageFaults(robust, seq, h));
+    }
+}
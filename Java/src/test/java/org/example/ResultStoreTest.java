@@ -0,0 +1,98 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ResultStoreTest {
+
+    private static final List<String> PARAMETERS = List.of("k", "tau");
+    private static final List<String> ALGORITHMS = List.of("opt", "lru");
+
+    @Test
+    public void testSpilledRowsReadBackInOrder(@TempDir Path directory) {
+        Path file = directory.resolve("trials");
+        List<int[]> rows = new ArrayList<>();
+        try (ResultStore store = ResultStore.spilling(file, PARAMETERS, ALGORITHMS, 4)) {
+            for (int r = 0; r < 10; r++) {
+                store.append(new double[]{r, r / 10.0}, new int[]{r, 2 * r});
+            }
+            assertEquals(10, store.rows());
+            store.forEachChunk(chunk -> {
+                for (int r = 0; r < chunk.rows(); r++) {
+                    assertEquals(chunk.parameters()[0][r] / 10.0, chunk.parameters()[1][r]);
+                    rows.add(new int[]{chunk.pageFaults()[0][r], chunk.pageFaults()[1][r]});
+                }
+            });
+        }
+
+        assertEquals(10, rows.size());
+        for (int r = 0; r < 10; r++) {
+            assertArrayEquals(new int[]{r, 2 * r}, rows.get(r));
+        }
+    }
+
+    @Test
+    public void testOnlyOneChunkIsHeldWhileSpilling(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("trials");
+        try (ResultStore store = ResultStore.spilling(file, PARAMETERS, ALGORITHMS, 4)) {
+            long header = Files.size(file);
+            for (int r = 0; r < 9; r++) {
+                store.append(new double[]{1, 0.5}, new int[]{3, 4});
+            }
+            // two full blocks of 4 rows of 2 doubles and 2 ints, one row still in memory
+            assertEquals(header + 2 * (4 + 4 * (16 + 8)), Files.size(file));
+        }
+    }
+
+    @Test
+    public void testReopenedStoreAppendsAfterTheLastRow(@TempDir Path directory) {
+        Path file = directory.resolve("trials");
+        try (ResultStore store = ResultStore.spilling(file, PARAMETERS, ALGORITHMS, 3)) {
+            for (int r = 0; r < 5; r++) {
+                store.append(new double[]{r, 0}, new int[]{r, r});
+            }
+        }
+        try (ResultStore store = ResultStore.open(file)) {
+            assertEquals(PARAMETERS, store.parameters());
+            assertEquals(ALGORITHMS, store.algorithms());
+            assertEquals(5, store.rows());
+            store.append(new double[]{5, 0}, new int[]{5, 5});
+        }
+
+        try (ResultStore store = ResultStore.open(file)) {
+            RunningStatistics opt = store.statistics(0);
+            assertEquals(6, opt.count());
+            assertEquals(15, opt.sum());
+        }
+    }
+
+    @Test
+    public void testInMemoryStatistics() {
+        ResultStore store = ResultStore.inMemory(PARAMETERS, ALGORITHMS);
+        for (int r = 1; r <= 4; r++) {
+            store.append(new double[]{5, 0.5}, new int[]{r, 10});
+        }
+
+        assertEquals(2.5, store.statistics(0).mean());
+        assertEquals(0, store.statistics(1).variance());
+        assertThrows(IllegalArgumentException.class, () -> store.append(new double[]{5}, new int[]{1, 2}));
+    }
+
+    @Test
+    public void testOtherFilesAreRejected(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("not-trials");
+        Files.writeString(file, "k,tau,opt\n");
+
+        assertThrows(UncheckedIOException.class, () -> ResultStore.open(file));
+    }
+}
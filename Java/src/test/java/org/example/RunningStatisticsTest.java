@@ -0,0 +1,108 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RunningStatisticsTest {
+
+    @Test
+    public void testMatchesTwoPassStatistics() {
+        long[] values = {12, 7, 7, 30, 1, 19, 4, 4, 25, 0};
+        RunningStatistics statistics = new RunningStatistics();
+        for (long value : values) {
+            statistics.add(value);
+        }
+
+        double mean = 0;
+        for (long value : values) {
+            mean += value;
+        }
+        mean /= values.length;
+        double squares = 0;
+        for (long value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+
+        assertEquals(10, statistics.count());
+        assertEquals(109, statistics.sum());
+        assertEquals(mean, statistics.mean());
+        assertEquals(squares / (values.length - 1), statistics.variance(), 1e-12);
+        assertEquals(Math.sqrt(statistics.variance() / 10), statistics.standardError(), 1e-12);
+        assertEquals(0, statistics.min());
+        assertEquals(30, statistics.max());
+        assertEquals(7, statistics.percentile(50));
+    }
+
+    @Test
+    public void testVarianceIsExactForLargeValuesWithSmallSpread() {
+        // the naive sum of squares in doubles loses the whole variance here
+        RunningStatistics statistics = new RunningStatistics();
+        long base = 3_000_000_000L;
+        for (int i = 0; i < 1000; i++) {
+            statistics.add(base + (i % 2));
+        }
+
+        assertEquals(0.25 * 1000 / 999, statistics.variance(), 1e-15);
+        assertEquals(base + 0.5, statistics.mean());
+    }
+
+    @Test
+    public void testOrderDoesNotChangeTheStatistics() {
+        long[] values = new SplittableRandom(3).longs(5000, 0, 1_000_000).toArray();
+        RunningStatistics forward = new RunningStatistics();
+        RunningStatistics backward = new RunningStatistics();
+        for (int i = 0; i < values.length; i++) {
+            forward.add(values[i]);
+            backward.add(values[values.length - 1 - i]);
+        }
+
+        assertEquals(forward.mean(), backward.mean());
+        assertEquals(forward.variance(), backward.variance());
+        assertEquals(forward.percentile(95), backward.percentile(95));
+    }
+
+    @Test
+    public void testEmptyAndSingleValue() {
+        RunningStatistics statistics = new RunningStatistics();
+        assertEquals(0, statistics.mean());
+        assertEquals(0, statistics.variance());
+        assertEquals(0, statistics.min());
+
+        statistics.add(42);
+        assertEquals(42, statistics.mean());
+        assertEquals(0, statistics.confidenceHalfWidth());
+        assertTrue(statistics.percentile(99) <= 42);
+    }
+
+    @Test
+    public void testNegativeDifferences() {
+        RunningStatistics statistics = new RunningStatistics();
+        for (long value : new long[]{-3, 1, -1, 3}) {
+            statistics.add(value);
+        }
+
+        assertEquals(0, statistics.mean());
+        assertEquals(20.0 / 3, statistics.variance(), 1e-12);
+        assertEquals(-3, statistics.min());
+        assertEquals(3, statistics.max());
+    }
+
+    @Test
+    public void testConfidenceIntervalUsesStudentT() {
+        RunningStatistics statistics = new RunningStatistics();
+        for (long value : new long[]{8, 12, 9, 11, 10, 10, 7, 13, 10, 10}) {
+            statistics.add(value);
+        }
+
+        // t with 9 degrees of freedom, not the normal 1.96
+        assertEquals(2.262157163 * statistics.standardError(), statistics.confidenceHalfWidth(), 1e-12);
+        assertEquals(2.042272456, RunningStatistics.t95(30), 1e-9);
+        // the expansion beyond the table: t(40) = 2.021075, t(120) = 1.979930
+        assertEquals(2.021075390, RunningStatistics.t95(40), 1e-6);
+        assertEquals(1.979930405, RunningStatistics.t95(120), 1e-6);
+        assertTrue(RunningStatistics.t95(1_000_000) - RunningStatistics.Z95 < 1e-5);
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class StackDistanceTest {
+
+    @Test
+    public void testEveryCacheSizeMatchesLRU() {
+        int[] sequence = {1, 2, 3, 4, 2, 1, 5, 6, 2, 1, 2, 3, 7, 6, 3, 2, 1, 2, 3, 6};
+        List<Integer> boxed = Arrays.stream(sequence).boxed().toList();
+        StackDistance profile = StackDistance.of(sequence);
+
+        assertEquals(7, profile.distinctPages());
+        for (int k = 1; k <= 10; k++) {
+            assertEquals(Combined.LRU(k, boxed), profile.pageFaults(k), "# pageFaults for k:" + k);
+        }
+    }
+
+    @Test
+    public void testMissCurveMatchesGeneratedTraces() {
+        SplittableRandom random = new SplittableRandom(13);
+        for (int trial = 0; trial < 10; trial++) {
+            int k = 1 + random.nextInt(30);
+            int N = k + 1 + random.nextInt(200);
+            int[] seq = new int[2000];
+            Combined.generateRandomSequence(k, N, random.nextDouble(), random.nextLong(), seq);
+            List<Integer> boxed = Arrays.stream(seq).boxed().toList();
+
+            int[] curve = StackDistance.of(seq).missCurve(N + 1);
+            for (int size = 1; size <= N + 1; size++) {
+                assertEquals(Combined.LRU(size, boxed), curve[size], "k:" + size + " N:" + N);
+            }
+        }
+    }
+
+    @Test
+    public void testSparsePages() {
+        int[] sequence = {1 << 30, -7, 1 << 30, 12345678, -7, 1 << 30, 99};
+        StackDistance profile = StackDistance.of(sequence);
+
+        for (int k = 1; k <= 5; k++) {
+            assertEquals(LRU.pageFaults(k, sequence), profile.pageFaults(k), "# pageFaults for k:" + k);
+        }
+    }
+}
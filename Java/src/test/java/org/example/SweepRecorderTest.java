@@ -0,0 +1,84 @@
+package org.example;
+import org.jfree.chart.JFreeChart;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SweepRecorderTest {
+
+    @Test
+    public void testPointsAreVisibleBeforeClose(@TempDir Path directory) throws IOException {
+        SweepRecorder recorder = SweepRecorder.forSweep(directory, "τ - regime 1", SweepRecorder.ALGORITHMS, "tau");
+        recorder.record(new Number[]{0.45}, statistics(10, 20, 30, 25));
+        Path csv = directory.resolve("tau-regime-1.csv");
+
+        // the point is flushed as soon as it is recorded
+        assertEquals(List.of("tau,opt,blindOracle,lru,combined", "0.45,10.0000,20.0000,30.0000,25.0000"),
+                Files.readAllLines(csv));
+
+        recorder.record(new Number[]{0.55}, statistics(11, 20, 30, 25));
+        recorder.close();
+        assertEquals(3, Files.readAllLines(csv).size(), "Every sweep point must be written");
+    }
+
+    @Test
+    public void testNoDirectoryWritesNothing(@TempDir Path directory) throws IOException {
+        try (SweepRecorder recorder = SweepRecorder.forSweep(null, "k", SweepRecorder.ALGORITHMS, "k")) {
+            recorder.record(new Number[]{5}, statistics(10, 20, 30, 25));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    public void testStatisticsGoToTheSummary(@TempDir Path directory) throws IOException {
+        RunningStatistics[] statistics = new RunningStatistics[2];
+        for (int j = 0; j < 2; j++) {
+            statistics[j] = new RunningStatistics();
+            for (int trial = 1; trial <= 4; trial++) {
+                statistics[j].add(10L * (j + 1) * trial);
+            }
+        }
+
+        try (SweepRecorder recorder = SweepRecorder.forSweep(directory, "k", List.of("opt", "lru"), "k")) {
+            recorder.record(new Number[]{5}, statistics);
+        }
+
+        assertEquals(List.of("k,opt,lru", "5,25.0000,50.0000"), Files.readAllLines(directory.resolve("k.csv")));
+        List<String> summary = Files.readAllLines(directory.resolve("k-summary.csv"));
+        assertEquals("k,trials,opt_mean,opt_sd,opt_ci95,opt_p5,opt_p50,opt_p95,lru_mean,lru_sd,lru_ci95,lru_p5,lru_p50,lru_p95",
+                summary.get(0));
+        assertEquals("5,4,25.0000,12.9099,20.5426,10,20,40,50.0000,25.8199,41.0852,20,40,80", summary.get(1));
+    }
+
+    @Test
+    public void testChartIsRenderedToPng(@TempDir Path directory) throws IOException {
+        JFreeChart chart = Combined.createPageFaultChart(List.of(1, 2), List.of(3, 4), List.of(5, 6), List.of(4, 5),
+                List.of(5, 10), "K - Regime 1");
+
+        Path png = SweepRecorder.saveChart(directory, "K - Regime 1", chart);
+
+        assertEquals("K-Regime-1.png", png.getFileName().toString());
+        assertTrue(Files.size(png) > 0, "Chart image is empty");
+    }
+
+    // the statistics of a single trial with the given page faults
+    private static RunningStatistics[] statistics(long... pageFaults) {
+        RunningStatistics[] statistics = new RunningStatistics[pageFaults.length];
+        for (int j = 0; j < pageFaults.length; j++) {
+            statistics[j] = new RunningStatistics();
+            statistics[j].add(pageFaults[j]);
+        }
+        return statistics;
+    }
+}
@@ -0,0 +1,215 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SweepTest {
+
+    @Test
+    public void testCartesianProduct() {
+        Sweep sweep = new Sweep("grid").k(5, 10).factor(10).tau(0.5, 0.9).w(50, 100, 200);
+        List<SweepPoint> points = sweep.points();
+
+        assertEquals(12, points.size(), "2 x 2 x 3 points expected");
+        assertEquals(new SweepPoint(5, 50, 10000, 0.5, 0.5, 50, 0.1), points.get(0));
+        assertEquals(new SweepPoint(10, 100, 10000, 0.5, 0.9, 200, 0.1), points.get(11));
+        assertEquals(List.of("k", "tau", "w"), sweep.varied());
+        assertEquals("k", sweep.xParameter());
+    }
+
+    @Test
+    public void testLoadFromProperties() {
+        Properties properties = new Properties();
+        properties.setProperty("sweeps", "a, b");
+        properties.setProperty("a.name", "K - Regime 2");
+        properties.setProperty("a.k", "5, 10, 15, 20");
+        properties.setProperty("a.factor", "10");
+        properties.setProperty("a.epsilon", "0.7");
+        properties.setProperty("a.tau", "0.9");
+        properties.setProperty("b.tau", "0.45, 0.55");
+        properties.setProperty("b.batchSize", "7");
+        properties.setProperty("b.policies", "fifo, ARC");
+
+        List<Sweep> sweeps = Sweep.load(properties);
+
+        assertEquals(2, sweeps.size());
+        assertEquals("K - Regime 2", sweeps.get(0).name());
+        assertEquals(new SweepPoint(20, 200, 10000, 0.7, 0.9, 200, 0.1), sweeps.get(0).points().get(3));
+        assertEquals("b", sweeps.get(1).name());
+        assertEquals("tau", sweeps.get(1).xParameter());
+        assertEquals(7, sweeps.get(1).batchSize());
+        assertEquals(List.of(PolicyType.FIFO, PolicyType.ARC), sweeps.get(1).policies());
+    }
+
+    @Test
+    public void testFurtherPoliciesFollowTheFourAlgorithms() {
+        Sweep plain = new Sweep("plain").k(5, 10).factor(10).n(1000).batchSize(3);
+        Sweep extended = new Sweep("extended").k(5, 10).factor(10).n(1000).batchSize(3)
+                .policies(PolicyType.FIFO, PolicyType.LFU, PolicyType.CLOCK, PolicyType.ARC);
+
+        List<double[][]> means = new SweepRunner(ForkJoinPool.commonPool()).execute(List.of(plain, extended));
+
+        for (int p = 0; p < 2; p++) {
+            assertEquals(8, means.get(1)[p].length);
+            for (int j = 0; j < 4; j++) {
+                assertEquals(means.get(0)[p][j], means.get(1)[p][j], "Deterministic policies must not change the noise");
+            }
+        }
+    }
+
+    @Test
+    public void testSweepResultsDoNotDependOnPoolSize() {
+        List<Sweep> sweeps = List.of(
+                new Sweep("a").k(5, 10).factor(10).n(1000).batchSize(6).seed(1),
+                new Sweep("b").tau(0.45, 0.9).n(1000).batchSize(5).seed(2));
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            List<double[][]> first = new SweepRunner(single).execute(sweeps);
+            List<double[][]> second = new SweepRunner(many).execute(sweeps);
+
+            for (int s = 0; s < sweeps.size(); s++) {
+                for (int p = 0; p < first.get(s).length; p++) {
+                    assertArrayEquals(first.get(s)[p], second.get(s)[p], "Sweep " + s + " point " + p);
+                }
+            }
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    public void testAdaptiveRoundsReproduceTheFixedBatchAtTheCap() {
+        // a precision that is never reached runs rounds of 2, 4 and 6 trials with the seeds of a batch of 6
+        Sweep fixed = new Sweep("fixed").k(5, 10).factor(10).n(1000).batchSize(6).seed(3);
+        Sweep adaptive = new Sweep("capped").k(5, 10).factor(10).n(1000).seed(3)
+                .precision(1e-9).minTrials(2).maxTrials(6);
+
+        List<double[][]> means = new SweepRunner(ForkJoinPool.commonPool()).execute(List.of(fixed, adaptive));
+
+        for (int p = 0; p < 2; p++) {
+            assertArrayEquals(means.get(0)[p], means.get(1)[p], "Point " + p);
+        }
+    }
+
+    @Test
+    public void testAdaptiveSweepDoesNotDependOnPoolSize() {
+        List<Sweep> sweeps = List.of(
+                new Sweep("means").tau(0.45, 0.9).n(1000).precision(0.02).minTrials(4).maxTrials(64).seed(5),
+                new Sweep("pairs").tau(0.45, 0.9).n(1000).precision(0.02).pairwise(true).minTrials(4).maxTrials(64).seed(5));
+
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            List<double[][]> first = new SweepRunner(single).execute(sweeps);
+            List<double[][]> second = new SweepRunner(many).execute(sweeps);
+
+            for (int s = 0; s < sweeps.size(); s++) {
+                for (int p = 0; p < first.get(s).length; p++) {
+                    assertArrayEquals(first.get(s)[p], second.get(s)[p], "Sweep " + s + " point " + p);
+                }
+            }
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    public void testStablePointsStopEarly(@TempDir Path directory) {
+        Sweep loose = new Sweep("adaptive loose").tau(0.45, 0.9).n(1000).precision(0.5).minTrials(3).maxTrials(500);
+
+        new SweepRunner(ForkJoinPool.commonPool(), new TraceCache(), directory).execute(List.of(loose));
+
+        try (ResultStore trials = ResultStore.open(directory.resolve("adaptive-loose.trials"))) {
+            assertEquals(6, trials.rows(), "A ±50% interval needs only the first round of each point");
+        }
+    }
+
+    @Test
+    public void testLoadAdaptiveKeys() {
+        Properties properties = new Properties();
+        properties.setProperty("sweeps", "a");
+        properties.setProperty("a.precision", "0.01");
+        properties.setProperty("a.pairwise", "true");
+        properties.setProperty("a.minTrials", "8");
+        properties.setProperty("a.maxTrials", "400");
+
+        Sweep sweep = Sweep.load(properties).get(0);
+
+        assertEquals(0.01, sweep.precision());
+        assertEquals(true, sweep.pairwise());
+        assertEquals(8, sweep.minTrials());
+        assertEquals(400, sweep.trialCap());
+        assertEquals(100, new Sweep("fixed").trialCap());
+    }
+
+    @Test
+    public void testFailingTrialCancelsTheJobAndPropagates() {
+        // every trial of the failing sweep fails to generate a trace with fewer pages than the cache
+        List<Sweep> sweeps = List.of(
+                new Sweep("healthy").k(5, 10, 15, 20).factor(10).n(1000).precision(1e-9).maxTrials(1000),
+                new Sweep("failing").k(20).N(10).n(1000).batchSize(3));
+
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            IllegalArgumentException failure = assertThrows(IllegalArgumentException.class,
+                    () -> new SweepRunner(pool).execute(sweeps));
+
+            assertTrue(failure.getMessage().contains("k <= N"), failure.getMessage());
+            // the healthy sweep was cancelled long before its 4000 trials, and nothing is left running
+            assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testResultsGoToTheOutputDirectory(@TempDir Path directory) throws IOException {
+        Sweep sweep = new Sweep("K - written").k(20, 5, 15, 10).factor(10).n(1000).batchSize(2);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            new SweepRunner(pool, new TraceCache(), directory).execute(List.of(sweep));
+        } finally {
+            pool.shutdown();
+        }
+
+        // points are written in point order and trials in trial order, whichever finishes first
+        int[] k = {20, 5, 15, 10};
+        List<String> rows = Files.readAllLines(directory.resolve("K-written.csv"));
+        assertEquals(5, rows.size(), "Header and one row per point");
+        for (int p = 0; p < k.length; p++) {
+            assertTrue(rows.get(p + 1).startsWith(k[p] + ","), rows.get(p + 1));
+        }
+        assertTrue(Files.exists(directory.resolve("K-written-summary.csv")));
+        try (ResultStore trials = ResultStore.open(directory.resolve("K-written.trials"))) {
+            assertEquals(8, trials.rows(), "One row per trial");
+            assertEquals(List.of("k", "factor", "n", "epsilon", "tau", "w", "threshold", "trial"), trials.parameters());
+            List<double[]> keys = new ArrayList<>();
+            trials.forEachChunk(chunk -> {
+                for (int r = 0; r < chunk.rows(); r++) {
+                    keys.add(new double[]{chunk.parameters()[0][r], chunk.parameters()[7][r]});
+                }
+            });
+            for (int r = 0; r < keys.size(); r++) {
+                assertArrayEquals(new double[]{k[r / 2], r % 2}, keys.get(r), "Row " + r);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TraceCacheTest {
+
+    @Test
+    public void testSameKeySharesOneTrace() {
+        TraceCache cache = new TraceCache(1 << 20);
+        TraceCache.Trace first = cache.get(5, 50, 1000, 0.5, 11L);
+        TraceCache.Trace second = cache.get(5, 50, 1000, 0.5, 11L);
+
+        assertSame(first, second, "Same key must reuse the trace");
+        assertArrayEquals(Combined.generateH(first.sequence()), first.hSequence());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.hits());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedTraceIsEvicted() {
+        // room for two traces of 1000 requests
+        TraceCache cache = new TraceCache(2 * (8 * 1000 + 64));
+        TraceCache.Trace a = cache.get(5, 50, 1000, 0.5, 1L);
+        cache.get(5, 50, 1000, 0.5, 2L);
+        cache.get(5, 50, 1000, 0.5, 1L);   // a becomes the most recently used
+        cache.get(5, 50, 1000, 0.5, 3L);   // evicts seed 2
+
+        assertTrue(cache.bytes() <= 2 * (8 * 1000 + 64), "Budget exceeded");
+        assertSame(a, cache.get(5, 50, 1000, 0.5, 1L), "Recently used trace was evicted");
+        long misses = cache.misses();
+        cache.get(5, 50, 1000, 0.5, 2L);
+        assertEquals(misses + 1, cache.misses(), "Least recently used trace was not evicted");
+    }
+
+    @Test
+    public void testSweepOverTauGeneratesEachTraceOnce() {
+        TraceCache cache = new TraceCache(1 << 24);
+        Sweep sweep = new Sweep("tau").tau(0.45, 0.55, 0.7).n(1000).batchSize(4);
+
+        List<double[][]> means = new SweepRunner(ForkJoinPool.commonPool(), cache).execute(List.of(sweep));
+
+        assertEquals(4, cache.misses(), "One trace per trial, shared by every tau");
+        assertEquals(8, cache.hits());
+        // the traces are the same at every tau, so OPT and LRU see the same requests and only the noise differs
+        double[][] points = means.get(0);
+        for (int p = 1; p < points.length; p++) {
+            assertEquals(points[0][0], points[p][0], "OPT at point " + p);
+            assertEquals(points[0][2], points[p][2], "LRU at point " + p);
+        }
+        assertNotEquals(points[0][1], points[2][1], "Blind Oracle must see the noise of each tau");
+    }
+}
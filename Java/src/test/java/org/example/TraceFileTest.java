@@ -0,0 +1,100 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TraceFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testFixedWidthRoundTrip() throws IOException {
+        int[] pages = {7, -3, 1_000_000_000, 7, Integer.MIN_VALUE, 7};
+        int[] h = Combined.generateH(pages);
+        Path path = directory.resolve("fixed.trace");
+        TraceFile.write(path, pages, h, false);
+
+        TraceFile trace = TraceFile.open(path);
+        assertEquals(pages.length, trace.length());
+        assertEquals(Integer.MIN_VALUE, trace.minPage());
+        assertEquals(1_000_000_000, trace.maxPage());
+        assertFalse(trace.isVarint());
+        assertTrue(trace.hasNextArrival());
+        assertEquals(4L * pages.length, trace.pageBytes());
+
+        int[][] read = read(trace, 1 << 20);
+        assertArrayEquals(pages, read[0]);
+        assertArrayEquals(h, read[1]);
+    }
+
+    @Test
+    public void testVarintDeltasAcrossWindows() throws IOException {
+        int[] pages = new int[20000];
+        Combined.generateRandomSequence(20, 200, 0.6, 11L, pages);
+        pages[500] = Integer.MAX_VALUE;   // five byte deltas
+        pages[501] = Integer.MIN_VALUE;
+        Path path = directory.resolve("varint.trace");
+        TraceFile.write(path, pages, null, true);
+
+        TraceFile trace = TraceFile.open(path);
+        assertTrue(trace.isVarint());
+        assertFalse(trace.hasNextArrival());
+        assertTrue(trace.pageBytes() < 2L * pages.length, "Deltas of a local trace take under two bytes");
+
+        // tiny windows force a remap every few requests, including inside varints
+        assertArrayEquals(pages, read(trace, 7)[0]);
+    }
+
+    @Test
+    public void testReplayMatchesInMemoryEngines() throws IOException {
+        int k = 10;
+        int[] pages = new int[5000];
+        Combined.generateRandomSequence(k, 100, 0.5, 3L, pages);
+        int[] h = Combined.generateH(pages);
+        Path path = directory.resolve("replay.trace");
+        TraceFile.write(path, pages, h, true);
+
+        TraceFile trace = TraceFile.open(path);
+        int[] faults = TraceReplay.replay(trace, k, 0.1, 1L);
+
+        assertEquals(TraceReplay.columns(trace).size(), faults.length);
+        assertEquals(BlindOracle.pageFaults(k, pages, h), faults[0], "opt");
+        assertEquals(LRU.pageFaults(k, pages), faults[1], "lru");
+        assertEquals(CombinedAlg.pageFaults(k, pages, h, 0.1), faults[2], "combined");
+        assertEquals(FIFO.pageFaults(k, pages), faults[3], "fifo");
+        assertEquals(ARC.pageFaults(k, pages), faults[6], "arc");
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        Path path = directory.resolve("other.bin");
+        Files.write(path, new byte[TraceFile.HEADER_BYTES]);
+
+        assertThrows(IllegalArgumentException.class, () -> TraceFile.open(path));
+    }
+
+    private static int[][] read(TraceFile trace, long window) throws IOException {
+        int n = (int) trace.length();
+        int[] pages = new int[n];
+        int[] h = new int[n];
+        try (TraceFile.Cursor cursor = trace.cursor(window)) {
+            for (int i = 0; cursor.hasNext(); i++) {
+                pages[i] = cursor.nextPage();
+                if (trace.hasNextArrival()) {
+                    h[i] = cursor.nextArrival();
+                }
+            }
+        }
+        return new int[][]{pages, h};
+    }
+}
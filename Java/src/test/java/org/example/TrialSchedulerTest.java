@@ -0,0 +1,34 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TrialSchedulerTest {
+
+    @Test
+    public void testBatchIsReproducibleForAnyPoolSize() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            double[] first = TrialScheduler.batchTrial(single, 17, 5, 50, 1000, 0.5, 0.5, 20, 0.1, 99L);
+            double[] second = TrialScheduler.batchTrial(many, 17, 5, 50, 1000, 0.5, 0.5, 20, 0.1, 99L);
+
+            assertArrayEquals(first, second, "Same seed must give the same means for any pool size");
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    public void testOptIsTheLowestMean() {
+        double[] means = TrialScheduler.batchTrial(ForkJoinPool.commonPool(), 10, 10, 100, 2000, 0.7, 0.9, 200, 0.1, 7L);
+
+        for (int j = 1; j < means.length; j++) {
+            assertTrue(means[0] <= means[j], "OPT must not fault more than algorithm " + j);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.example;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+public class TrialSimulatorTest {
+
+    @Test
+    public void testMatchesSeparatePasses() {
+        int[][] settings = {{5, 50}, {10, 100}, {20, 200}};
+        for (int[] setting : settings) {
+            int k = setting[0];
+            int[] seq = new int[5000];
+            Combined.generateRandomSequence(k, setting[1], 0.6, k, seq);
+            int[] hSeq = Combined.generateH(seq);
+            int[] noisy = Combined.addNoise(hSeq, 0.7, 100, new SplittableRandom(k));
+
+            int[] expected = {
+                    BlindOracle.pageFaults(k, seq, hSeq),
+                    BlindOracle.pageFaults(k, seq, noisy),
+                    LRU.pageFaults(k, seq),
+                    CombinedAlg.pageFaults(k, seq, noisy, 0.1)};
+            int[] fused = TrialSimulator.run(k, seq, hSeq, 0.7, 100, 0.1, new SplittableRandom(k));
+
+            assertArrayEquals(expected, fused, "k = " + k);
+        }
+    }
+
+    @Test
+    public void testSparsePagesUseHashedTables() {
+        int k = 2;
+        int[] seq = {7, -3, 1_000_000_000, 7, -3, 7, 1_000_000_000, -3};
+        int[] hSeq = Combined.generateH(seq);
+
+        int[] expected = {
+                BlindOracle.pageFaults(k, seq, hSeq),
+                BlindOracle.pageFaults(k, seq, hSeq),
+                LRU.pageFaults(k, seq),
+                CombinedAlg.pageFaults(k, seq, hSeq, 0.1)};
+
+        assertArrayEquals(expected, TrialSimulator.run(k, seq, hSeq, -1.0, 4, 0.1, new SplittableRandom(1)));
+    }
+}